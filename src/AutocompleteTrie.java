@@ -0,0 +1,493 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix trie behind the search box suggestions.
+ * Terms are product names and categories. Each name is reachable from the start of
+ * every word in it, so "head" completes "Wireless Headphones". The trie is stored as
+ * flat arrays in depth-first order: the children of a node sit next to each other,
+ * sorted by character, and are found by binary search. Every node caches the ids of
+ * the best terms below it, so a lookup is one walk down the prefix and no search of
+ * the subtree.
+ *
+ * A term's popularity is how many products carry it, plus a boost each time it is
+ * picked from the suggestion list. Built off the EDT; lookups, selections and updates
+ * happen on the EDT.
+ *
+ * Catalog changes don't rebuild the arrays. update() records each changed term's new
+ * popularity in a small overlay, which every lookup merges with the cached lists, so
+ * added and renamed products are suggested straight away. A removed term only drops
+ * out of the lists; the term that would have taken its place shows up at the next
+ * rebuild, which update() asks for once the overlay passes MAX_OVERLAY_TERMS.
+ */
+public class AutocompleteTrie {
+
+    public static final int MAX_SUGGESTIONS = 8;
+    static final int MAX_KEY_LENGTH = 24;  // Keys are cut here to bound the node count
+    static final int SELECTION_BOOST = 5;  // Popularity added per pick from the list
+    static final int MAX_OVERLAY_TERMS = 256; // Changed terms kept beside the arrays before a rebuild is due
+
+    private static final int[] NO_TERMS = new int[0];
+
+    /**
+     * One suggestion: a product name, or a category.
+     */
+    public static class Suggestion {
+        private final int termId; // -1 for a term only the overlay knows
+        private final String text;
+        private final boolean category;
+        private final long weight;
+
+        Suggestion(int termId, String text, boolean category, long weight) {
+            this.termId = termId;
+            this.text = text;
+            this.category = category;
+            this.weight = weight;
+        }
+
+        public String getText() { return text; }
+        public boolean isCategory() { return category; }
+
+        /**
+         * Identifies the term across rebuilds, for carrying selection counts over.
+         */
+        public String getKey() { return termKey(text, category); }
+
+        @Override
+        public String toString() { return text; }
+    }
+
+    // --- Terms ---
+    private final String[] termText;
+    private final boolean[] termIsCategory;
+    private final long[] termWeight;
+    private final int[] termProducts; // Products carrying the term, when built
+    private final int[] termTable;    // Open-addressed by termHash: term id + 1, or 0 for an empty slot
+
+    // --- Terms changed since the build, by termKey ---
+    private final Map<String, ChangedTerm> overlay = new HashMap<>();
+
+    // --- Nodes (node 0 is the root) ---
+    private final char[] label;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[][] topTerms; // Best term ids under each node, by weight; may be shared with an only child
+
+    /**
+     * A term's popularity after the changes since the build.
+     */
+    private static class ChangedTerm {
+        final String text;
+        final boolean category;
+        long weight;
+        int products;
+
+        ChangedTerm(String text, boolean category, long weight, int products) {
+            this.text = text;
+            this.category = category;
+            this.weight = weight;
+            this.products = products;
+        }
+    }
+
+    private AutocompleteTrie(String[] termText, boolean[] termIsCategory, long[] termWeight, int[] termProducts,
+                             char[] label, int[] firstChild, int[] childCount, int[][] topTerms) {
+        this.termText = termText;
+        this.termIsCategory = termIsCategory;
+        this.termWeight = termWeight;
+        this.termProducts = termProducts;
+        this.label = label;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topTerms = topTerms;
+
+        termTable = new int[Integer.highestOneBit(Math.max(8, termText.length * 2)) << 1];
+        for (int id = 0; id < termText.length; id++) {
+            int slot = termHash(termText[id], termIsCategory[id]) & (termTable.length - 1);
+            while (termTable[slot] != 0) slot = (slot + 1) & (termTable.length - 1);
+            termTable[slot] = id + 1;
+        }
+    }
+
+    static String termKey(String text, boolean category) {
+        return (category ? "c:" : "n:") + text.toLowerCase();
+    }
+
+    /**
+     * Hashes a term the way termKey tells terms apart, without building the key.
+     */
+    private static int termHash(String text, boolean category) {
+        int h = category ? 1 : 0;
+        for (int i = 0; i < text.length(); i++) {
+            h = 31 * h + Character.toLowerCase(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the id the term was built with, or -1 if the build didn't have it.
+     */
+    private int findTerm(String text, boolean category) {
+        int slot = termHash(text, category) & (termTable.length - 1);
+        for (int entry; (entry = termTable[slot]) != 0; slot = (slot + 1) & (termTable.length - 1)) {
+            int id = entry - 1;
+            if (termIsCategory[id] == category && termText[id].equalsIgnoreCase(text)) return id;
+        }
+        return -1;
+    }
+
+    /**
+     * Builds a trie over the names and categories of the given products.
+     * @param selections how often each term (by Suggestion.getKey()) has been picked so far
+     */
+    public static AutocompleteTrie build(Collection<Product> products, Map<String, Integer> selections) {
+        Map<String, Integer> termIds = new HashMap<>();
+        List<String> texts = new ArrayList<>();
+        List<Boolean> categories = new ArrayList<>();
+        List<Long> weights = new ArrayList<>();
+
+        for (Product product : products) {
+            addOccurrence(product.getName(), false, termIds, texts, categories, weights);
+            addOccurrence(product.getCategory(), true, termIds, texts, categories, weights);
+        }
+
+        int termCount = texts.size();
+        String[] termText = texts.toArray(new String[0]);
+        boolean[] termIsCategory = new boolean[termCount];
+        long[] termWeight = new long[termCount];
+        int[] termProducts = new int[termCount];
+        for (int id = 0; id < termCount; id++) {
+            termIsCategory[id] = categories.get(id);
+            termProducts[id] = weights.get(id).intValue();
+            int picked = selections.getOrDefault(termKey(termText[id], termIsCategory[id]), 0);
+            termWeight[id] = weights.get(id) + (long) picked * SELECTION_BOOST;
+        }
+
+        List<KeyEntry> entries = new ArrayList<>();
+        for (int id = 0; id < termCount; id++) {
+            for (String key : keysOf(termText[id])) {
+                entries.add(new KeyEntry(key, id));
+            }
+        }
+        Collections.sort(entries);
+
+        Builder builder = new Builder(termWeight, termText, Math.max(16, entries.size() * 2));
+        builder.fill(0, entries, 0, entries.size(), 0);
+        return builder.finish(termText, termIsCategory, termWeight, termProducts);
+    }
+
+    private static void addOccurrence(String text, boolean category, Map<String, Integer> termIds,
+                                      List<String> texts, List<Boolean> categories, List<Long> weights) {
+        if (text == null || text.isBlank()) return;
+        String trimmed = text.trim();
+        Integer id = termIds.get(termKey(trimmed, category));
+        if (id == null) {
+            termIds.put(termKey(trimmed, category), texts.size());
+            texts.add(trimmed);
+            categories.add(category);
+            weights.add(1L);
+        } else {
+            weights.set(id, weights.get(id) + 1);
+        }
+    }
+
+    /**
+     * The lowercased suffixes of a term that start at a word, cut to MAX_KEY_LENGTH.
+     */
+    private static Set<String> keysOf(String text) {
+        String lower = text.toLowerCase();
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < lower.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(lower.charAt(i - 1));
+            if (wordStart && !Character.isWhitespace(lower.charAt(i))) {
+                keys.add(lower.substring(i, Math.min(lower.length(), i + MAX_KEY_LENGTH)));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Returns up to MAX_SUGGESTIONS terms that have a word starting with the prefix,
+     * most popular first.
+     */
+    public List<Suggestion> complete(String prefix) {
+        String key = prefix == null ? "" : prefix.toLowerCase().stripLeading();
+        if (key.isEmpty()) return Collections.emptyList();
+
+        int node = findNode(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+        if (node < 0 && overlay.isEmpty()) return Collections.emptyList();
+
+        List<Suggestion> suggestions = new ArrayList<>(MAX_SUGGESTIONS);
+        if (node >= 0) {
+            for (int termId : topTerms[node]) {
+                // Past the key length the node can't tell terms apart, so check the rest by hand
+                if (key.length() > MAX_KEY_LENGTH && !hasWordStartingWith(termText[termId].toLowerCase(), key)) continue;
+                // A changed term is ranked from the overlay below, with its current popularity
+                if (!overlay.isEmpty() && overlay.containsKey(termKey(termText[termId], termIsCategory[termId]))) continue;
+                suggestions.add(new Suggestion(termId, termText[termId], termIsCategory[termId], termWeight[termId]));
+            }
+        }
+        if (overlay.isEmpty()) return suggestions;
+
+        for (ChangedTerm term : overlay.values()) {
+            if (term.products <= 0 || !hasWordStartingWith(term.text.toLowerCase(), key)) continue;
+            int termId = findTerm(term.text, term.category);
+            suggestions.add(new Suggestion(termId, term.text, term.category, term.weight));
+        }
+        suggestions.sort((a, b) -> a.weight != b.weight ? Long.compare(b.weight, a.weight) : a.text.compareToIgnoreCase(b.text));
+        return suggestions.size() > MAX_SUGGESTIONS ? new ArrayList<>(suggestions.subList(0, MAX_SUGGESTIONS)) : suggestions;
+    }
+
+    private static boolean hasWordStartingWith(String lowerText, String lowerPrefix) {
+        for (int i = lowerText.indexOf(lowerPrefix); i >= 0; i = lowerText.indexOf(lowerPrefix, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(lowerText.charAt(i - 1))) return true;
+        }
+        return false;
+    }
+
+    private int findNode(String key) {
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            node = findChild(node, key.charAt(i));
+            if (node < 0) return -1;
+        }
+        return node;
+    }
+
+    private int findChild(int node, char c) {
+        int lo = firstChild[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (label[mid] < c) lo = mid + 1;
+            else if (label[mid] > c) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Boosts a picked suggestion and re-ranks it in the cached lists along its keys,
+     * so it climbs the list straight away rather than at the next rebuild.
+     */
+    public void recordSelection(Suggestion suggestion) {
+        ChangedTerm changed = overlay.get(suggestion.getKey());
+        if (changed != null) {
+            changed.weight += SELECTION_BOOST;
+            return;
+        }
+        int termId = suggestion.termId;
+        if (termId < 0 || termId >= termText.length || !termText[termId].equals(suggestion.text)) {
+            termId = findTerm(suggestion.text, suggestion.category); // From an older trie
+            if (termId < 0) return;
+        }
+        termWeight[termId] += SELECTION_BOOST;
+
+        for (String key : keysOf(termText[termId])) {
+            int node = 0;
+            topTerms[node] = withTerm(topTerms[node], termId);
+            for (int i = 0; i < key.length() && node >= 0; i++) {
+                node = findChild(node, key.charAt(i));
+                if (node >= 0) topTerms[node] = withTerm(topTerms[node], termId);
+            }
+        }
+    }
+
+    /**
+     * Applies a catalog change: the names and categories of the removed products lose a
+     * product each, those of the added products gain one. Pass a replaced product's old
+     * version as removed and its new one as added.
+     * @return true once enough terms have changed that the caller should rebuild
+     */
+    public boolean update(Collection<Product> removed, Collection<Product> added) {
+        for (Product product : removed) {
+            adjust(product.getName(), false, -1);
+            adjust(product.getCategory(), true, -1);
+        }
+        for (Product product : added) {
+            adjust(product.getName(), false, 1);
+            adjust(product.getCategory(), true, 1);
+        }
+        return overlay.size() > MAX_OVERLAY_TERMS;
+    }
+
+    private void adjust(String text, boolean category, int products) {
+        if (text == null || text.isBlank()) return;
+        String trimmed = text.trim();
+        ChangedTerm term = overlay.computeIfAbsent(termKey(trimmed, category), key -> {
+            int id = findTerm(trimmed, category);
+            return id < 0 ? new ChangedTerm(trimmed, category, 0, 0)
+                          : new ChangedTerm(termText[id], category, termWeight[id], termProducts[id]);
+        });
+        term.products += products;
+        term.weight += products;
+    }
+
+    /**
+     * Returns the list with the (heavier) term ranked in, as a new array when anything changes.
+     */
+    private int[] withTerm(int[] top, int termId) {
+        boolean present = false;
+        for (int id : top) {
+            if (id == termId) {
+                present = true;
+                break;
+            }
+        }
+        if (!present && top.length == MAX_SUGGESTIONS && !ranksBefore(termId, top[top.length - 1])) {
+            return top;
+        }
+        int[] updated = present ? top.clone() : Arrays.copyOf(top, Math.min(top.length + 1, MAX_SUGGESTIONS));
+        if (!present) updated[updated.length - 1] = termId;
+        // Insertion sort: the list is short and only one entry moved
+        for (int i = 1; i < updated.length; i++) {
+            int id = updated[i];
+            int j = i - 1;
+            while (j >= 0 && ranksBefore(id, updated[j])) {
+                updated[j + 1] = updated[j];
+                j--;
+            }
+            updated[j + 1] = id;
+        }
+        return updated;
+    }
+
+    private boolean ranksBefore(int a, int b) {
+        return ranksBefore(a, b, termWeight, termText);
+    }
+
+    private static boolean ranksBefore(int a, int b, long[] weight, String[] text) {
+        if (weight[a] != weight[b]) return weight[a] > weight[b];
+        int byText = text[a].compareToIgnoreCase(text[b]);
+        return byText != 0 ? byText < 0 : a < b;
+    }
+
+    public int getTermCount() { return termText.length; }
+    public int getNodeCount() { return label.length; }
+
+    private static class KeyEntry implements Comparable<KeyEntry> {
+        final String key;
+        final int termId;
+
+        KeyEntry(String key, int termId) {
+            this.key = key;
+            this.termId = termId;
+        }
+
+        @Override
+        public int compareTo(KeyEntry other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+    /**
+     * Lays the sorted keys out as a trie, one node range at a time.
+     */
+    private static class Builder {
+        private final long[] weight;
+        private final String[] text;
+        private char[] label;
+        private int[] firstChild;
+        private int[] childCount;
+        private int[][] topTerms;
+        private int nodeCount = 1; // The root
+
+        Builder(long[] weight, String[] text, int capacity) {
+            this.weight = weight;
+            this.text = text;
+            label = new char[capacity];
+            firstChild = new int[capacity];
+            childCount = new int[capacity];
+            topTerms = new int[capacity][];
+        }
+
+        /**
+         * Fills in the node whose keys are entries[lo, hi), all sharing their first depth characters.
+         */
+        void fill(int node, List<KeyEntry> entries, int lo, int hi, int depth) {
+            // Keys that end here sort before the longer ones
+            IntList candidates = new IntList();
+            int i = lo;
+            while (i < hi && entries.get(i).key.length() == depth) {
+                candidates.add(entries.get(i).termId);
+                i++;
+            }
+
+            IntList groupStarts = new IntList();
+            for (int j = i; j < hi; j++) {
+                if (j == i || entries.get(j).key.charAt(depth) != entries.get(j - 1).key.charAt(depth)) {
+                    groupStarts.add(j);
+                }
+            }
+
+            int first = nodeCount;
+            int children = groupStarts.size();
+            ensureCapacity(first + children);
+            nodeCount += children;
+            firstChild[node] = first;
+            childCount[node] = children;
+
+            for (int g = 0; g < children; g++) {
+                int start = groupStarts.get(g);
+                int end = g + 1 < children ? groupStarts.get(g + 1) : hi;
+                label[first + g] = entries.get(start).key.charAt(depth);
+                fill(first + g, entries, start, end, depth + 1);
+            }
+
+            if (candidates.isEmpty() && children == 1) {
+                topTerms[node] = topTerms[first]; // Same subtree, same answer
+                return;
+            }
+            for (int g = 0; g < children; g++) {
+                for (int id : topTerms[first + g]) {
+                    candidates.add(id);
+                }
+            }
+            topTerms[node] = best(candidates);
+        }
+
+        private int[] best(IntList candidates) {
+            if (candidates.isEmpty()) return NO_TERMS;
+            // Bounded insertion into a short ranked array; a term can arrive from several children
+            int[] top = new int[MAX_SUGGESTIONS];
+            int size = 0;
+            candidates:
+            for (int c = 0; c < candidates.size(); c++) {
+                int id = candidates.get(c);
+                for (int i = 0; i < size; i++) {
+                    if (top[i] == id) continue candidates;
+                }
+                if (size == MAX_SUGGESTIONS && !ranksBefore(id, top[size - 1], weight, text)) continue;
+                int j = size == MAX_SUGGESTIONS ? size - 1 : size++;
+                while (j > 0 && ranksBefore(id, top[j - 1], weight, text)) {
+                    top[j] = top[j - 1];
+                    j--;
+                }
+                top[j] = id;
+            }
+            return size == MAX_SUGGESTIONS ? top : Arrays.copyOf(top, size);
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed <= label.length) return;
+            int capacity = Math.max(needed, label.length * 2);
+            label = Arrays.copyOf(label, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            topTerms = Arrays.copyOf(topTerms, capacity);
+        }
+
+        AutocompleteTrie finish(String[] termText, boolean[] termIsCategory, long[] termWeight, int[] termProducts) {
+            return new AutocompleteTrie(termText, termIsCategory, termWeight, termProducts,
+                    Arrays.copyOf(label, nodeCount), Arrays.copyOf(firstChild, nodeCount),
+                    Arrays.copyOf(childCount, nodeCount), Arrays.copyOf(topTerms, nodeCount));
+        }
+    }
+}
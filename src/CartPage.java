@@ -3,7 +3,7 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.net.URL;
+import java.awt.image.BufferedImage;
 import java.util.List;
 
 public class CartPage extends JDialog {
@@ -476,25 +476,20 @@ public class CartPage extends JDialog {
     }
 
     private void loadCartItemImage(String imageUrl, JLabel imageLabel) {
-        SwingWorker<ImageIcon, Void> worker = new SwingWorker<>() {
-            @Override
-            protected ImageIcon doInBackground() throws Exception {
-                URL url = new URL(imageUrl);
-                ImageIcon icon = new ImageIcon(url);
-                Image scaledImage = icon.getImage().getScaledInstance(60, 60, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
-            }
-            @Override
-            protected void done() {
-                try {
-                    imageLabel.setText(null);
-                    imageLabel.setIcon(get());
-                } catch (Exception e) {
-                    imageLabel.setText("N/A");
-                    imageLabel.setForeground(new Color(108, 117, 125));
-                }
+        BufferedImage cached = ImageCache.getInstance().getIfPresent(imageUrl, 60);
+        if (cached != null) {
+            imageLabel.setText(null);
+            imageLabel.setIcon(new ImageIcon(cached));
+            return;
+        }
+        ImageCache.getInstance().load(imageUrl, 60).whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+            if (image != null) {
+                imageLabel.setText(null);
+                imageLabel.setIcon(new ImageIcon(image));
+            } else {
+                imageLabel.setText("N/A");
+                imageLabel.setForeground(new Color(108, 117, 125));
             }
-        };
-        worker.execute();
+        }));
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * The set of product changes since a client's last catalog sync.
+ * Changed products are new or edited rows; deleted ids are tombstoned rows.
+ */
+public class CatalogDelta {
+    private final List<Product> changedProducts;
+    private final List<Integer> deletedProductIds;
+    private final Timestamp syncToken; // Pass this to the next getProductChangesSince call
+
+    public CatalogDelta(List<Product> changedProducts, List<Integer> deletedProductIds, Timestamp syncToken) {
+        this.changedProducts = changedProducts;
+        this.deletedProductIds = deletedProductIds;
+        this.syncToken = syncToken;
+    }
+
+    public boolean isEmpty() {
+        return changedProducts.isEmpty() && deletedProductIds.isEmpty();
+    }
+
+    // Getters
+    public List<Product> getChangedProducts() { return changedProducts; }
+    public List<Integer> getDeletedProductIds() { return deletedProductIds; }
+    public Timestamp getSyncToken() { return syncToken; }
+}
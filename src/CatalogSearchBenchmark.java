@@ -0,0 +1,80 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Name search benchmark: the old linear scan (lowercase every name, then contains())
+ * against CatalogSearchIndex, on synthetic product names.
+ *
+ *   java CatalogSearchBenchmark [products ...]   (default 100000 1000000)
+ *
+ * Not JMH, since the project has no build to run it from: each query is warmed up,
+ * then timed over RUNS runs and averaged. Both paths must return the same number of
+ * matches, or the benchmark stops.
+ */
+public class CatalogSearchBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 20;
+
+    private static final String[] ADJECTIVES = {"wireless", "classic", "slim", "sport", "organic",
+            "smart", "leather", "cotton", "running", "digital"};
+    private static final String[] NOUNS = {"headphones", "sneakers", "watch", "shirt", "dress",
+            "vitamins", "laptop", "jacket", "bottle", "speaker"};
+
+    // Selective, broad (about 10% of names), no match, and too short for a trigram
+    private static final String[] QUERIES = {"sport sneakers 12", "headph", "zzz", "wa"};
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{100_000, 1_000_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+
+        for (int size : sizes) {
+            List<String> names = new ArrayList<>(size);
+            Random random = new Random(1);
+            for (int i = 0; i < size; i++) {
+                names.add(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i);
+            }
+
+            long start = System.nanoTime();
+            CatalogSearchIndex index = new CatalogSearchIndex();
+            for (int i = 0; i < size; i++) index.add(i, names.get(i));
+            System.out.printf("%,d products, index built in %.0f ms%n", size, (System.nanoTime() - start) / 1e6);
+
+            for (String query : QUERIES) {
+                String normalized = CatalogSearchIndex.normalize(query);
+                int linearMatches = linearSearch(names, normalized);
+                int indexMatches = index.search(normalized).length;
+                if (linearMatches != indexMatches) {
+                    throw new IllegalStateException("Match counts differ for \"" + query + "\": "
+                            + linearMatches + " vs " + indexMatches);
+                }
+                double linearMs = time(() -> linearSearch(names, normalized));
+                double indexMs = time(() -> index.search(normalized));
+                System.out.printf("  %-20s %,9d matches   linear %8.2f ms   index %8.3f ms%n",
+                        "\"" + query + "\"", indexMatches, linearMs, indexMs);
+            }
+        }
+    }
+
+    /**
+     * What ShopApp did before the index: lowercase each name on every query.
+     */
+    private static int linearSearch(List<String> names, String query) {
+        int matches = 0;
+        for (String name : names) {
+            if (name.toLowerCase().contains(query)) matches++;
+        }
+        return matches;
+    }
+
+    /**
+     * Mean milliseconds per run after warming up.
+     */
+    private static double time(Runnable run) {
+        for (int i = 0; i < WARMUP_RUNS; i++) run.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) run.run();
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Substring index over product names, keyed by catalog ordinal.
+ * Every name is lowercased once when it is added, and each distinct character
+ * trigram of the lowercased name gets a posting list of the ordinals that contain it.
+ * A query of three or more characters intersects the posting lists of its own
+ * trigrams, smallest first, and only the surviving candidates are checked with a real
+ * contains(), so products that cannot match are never looked at. Because the
+ * trigrams span the whole name, including spaces, this answers exactly the same
+ * "name contains the search text" question the grid has always used, prefixes included.
+ *
+ * Ordinals are only ever appended; removed products are tombstoned and skipped.
+ */
+public class CatalogSearchIndex {
+
+    private static final int[] NO_MATCHES = new int[0];
+
+    private String[] lowerNames = new String[1024];
+    private int ordinalCount;
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    /**
+     * Normalizes text the same way for indexing and for queries.
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase().trim();
+    }
+
+    /**
+     * Indexes a product name under the given ordinal. Ordinals must be added in increasing order.
+     */
+    public void add(int ordinal, String name) {
+        if (ordinal >= lowerNames.length) {
+            String[] grown = new String[Math.max(lowerNames.length * 2, ordinal + 1)];
+            System.arraycopy(lowerNames, 0, grown, 0, lowerNames.length);
+            lowerNames = grown;
+        }
+        String lower = name == null ? "" : name.toLowerCase();
+        lowerNames[ordinal] = lower;
+        ordinalCount = Math.max(ordinalCount, ordinal + 1);
+
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            IntList list = postings.computeIfAbsent(trigramKey(lower, i), k -> new IntList(4));
+            // A name can repeat a trigram; keep each ordinal once per list
+            if (list.isEmpty() || list.get(list.size() - 1) != ordinal) {
+                list.add(ordinal);
+            }
+        }
+    }
+
+    /**
+     * Tombstones an ordinal; it stays in the posting lists but never matches again.
+     */
+    public void remove(int ordinal) {
+        if (ordinal < ordinalCount) {
+            lowerNames[ordinal] = null;
+        }
+    }
+
+    private static long trigramKey(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * Returns, in ascending order, the live ordinals whose name contains the (already normalized) query.
+     * An empty query matches every live ordinal.
+     */
+    public int[] search(String query) {
+        if (query.length() < 3) {
+            // Too short for a trigram: check the pre-lowercased names directly
+            IntList matches = new IntList();
+            for (int ord = 0; ord < ordinalCount; ord++) {
+                String name = lowerNames[ord];
+                if (name != null && name.contains(query)) {
+                    matches.add(ord);
+                }
+            }
+            return matches.toArray();
+        }
+
+        int gramCount = query.length() - 2;
+        IntList[] lists = new IntList[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            IntList list = postings.get(trigramKey(query, i));
+            if (list == null) return NO_MATCHES;
+            lists[i] = list;
+        }
+        java.util.Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+
+        // Walk the rarest trigram's list and probe the others with a moving cursor
+        int[] cursors = new int[gramCount];
+        IntList matches = new IntList();
+        IntList rarest = lists[0];
+        candidates:
+        for (int i = 0; i < rarest.size(); i++) {
+            int ord = rarest.get(i);
+            for (int l = 1; l < gramCount; l++) {
+                if (!advanceTo(lists[l], cursors, l, ord)) continue candidates;
+            }
+            String name = lowerNames[ord];
+            if (name != null && name.contains(query)) {
+                matches.add(ord);
+            }
+        }
+        return matches.toArray();
+    }
+
+    /**
+     * Moves cursors[l] forward in list to the first entry >= ord, galloping then
+     * binary searching. Returns true if that entry is ord itself.
+     */
+    private static boolean advanceTo(IntList list, int[] cursors, int l, int ord) {
+        int lo = cursors[l];
+        int step = 1;
+        int hi = lo;
+        while (hi < list.size() && list.get(hi) < ord) {
+            lo = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, list.size() - 1);
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (list.get(mid) < ord) lo = mid + 1; else hi = mid - 1;
+        }
+        cursors[l] = lo;
+        return lo < list.size() && list.get(lo) == ord;
+    }
+}
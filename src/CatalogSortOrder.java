@@ -0,0 +1,187 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * One precomputed sort order over the catalog: every ordinal, arranged by a comparator.
+ * New products are held back until the next sort, then sorted among themselves and
+ * merged in, so the whole catalog is never re-sorted and a catalog streamed in chunks
+ * isn't merged once per chunk. A rank array (ordinal -> position) is derived from the order when first
+ * needed after a change. Sorting a subset of ordinals then needs no comparator at all:
+ * small subsets sort their ranks as plain ints, large ones are marked in a bitset and
+ * read out by walking the order. Walking backwards gives the descending order.
+ * The same arrays answer range queries: binary search the order for the range's
+ * bounds, and an ordinal is inside if its rank falls between them.
+ */
+public class CatalogSortOrder {
+
+    private final Comparator<Product> comparator;
+    private final List<Product> products; // The catalog's ordinal -> product list, null if removed
+    private final IntList pending = new IntList();
+    private int[] order = new int[0]; // Ordinals by comparator; may still hold tombstoned ones
+    private int size;
+    private int[] rank = new int[0];  // rank[ordinal] = position in order
+    private boolean ranksStale;
+
+    public CatalogSortOrder(Comparator<Product> comparator, List<Product> products) {
+        this.comparator = comparator;
+        this.products = products;
+    }
+
+    /**
+     * Queues newly added ordinals to be merged in before the next sort.
+     */
+    public void addAll(IntList newOrdinals) {
+        for (int i = 0; i < newOrdinals.size(); i++) {
+            pending.add(newOrdinals.get(i));
+        }
+    }
+
+    /**
+     * Merges the pending ordinals into the order. Ordinals whose product has been
+     * removed since (null in products) are dropped along the way.
+     */
+    private void mergePending() {
+        if (pending.isEmpty()) return;
+        Integer[] added = new Integer[pending.size()];
+        int live = 0;
+        for (int i = 0; i < pending.size(); i++) {
+            if (products.get(pending.get(i)) != null) added[live++] = pending.get(i);
+        }
+        pending.clear();
+        added = Arrays.copyOf(added, live);
+        Arrays.sort(added, (a, b) -> comparator.compare(products.get(a), products.get(b)));
+
+        int[] merged = new int[size + added.length];
+        int m = 0, i = 0, j = 0;
+        while (i < size || j < added.length) {
+            if (i < size && products.get(order[i]) == null) {
+                i++;
+                continue;
+            }
+            if (j >= added.length || (i < size && comparator.compare(products.get(order[i]), products.get(added[j])) <= 0)) {
+                merged[m++] = order[i++];
+            } else {
+                merged[m++] = added[j++];
+            }
+        }
+        order = merged;
+        size = m;
+        ranksStale = true;
+    }
+
+    public void clear() {
+        pending.clear();
+        order = new int[0];
+        size = 0;
+        rank = new int[0];
+        ranksStale = false;
+    }
+
+    private void refresh() {
+        mergePending();
+        if (ranksStale || rank.length < products.size()) {
+            rank = new int[products.size()];
+            for (int pos = 0; pos < size; pos++) {
+                rank[order[pos]] = pos;
+            }
+            ranksStale = false;
+        }
+    }
+
+    /**
+     * Returns the first position whose product does not satisfy isBefore, which must
+     * hold for a prefix of the order (e.g. "price below x" for the price order).
+     * Tombstoned slots are stepped over.
+     */
+    public int lowerBound(Predicate<Product> isBefore) {
+        refresh();
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int probe = mid;
+            while (probe < hi && products.get(order[probe]) == null) probe++;
+            if (probe == hi) {
+                hi = mid;
+            } else if (isBefore.test(products.get(order[probe]))) {
+                lo = probe + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the position of a live ordinal in this order.
+     */
+    public int positionOf(int ordinal) {
+        refresh();
+        return rank[ordinal];
+    }
+
+    /**
+     * Returns the live ordinals at positions [from, to), in ascending ordinal order.
+     */
+    public int[] ordinalsBetween(int from, int to) {
+        refresh();
+        IntList live = new IntList(Math.max(0, to - from));
+        for (int pos = from; pos < to; pos++) {
+            if (products.get(order[pos]) != null) live.add(order[pos]);
+        }
+        int[] ordinals = live.toArray();
+        Arrays.sort(ordinals);
+        return ordinals;
+    }
+
+    /**
+     * Returns the first (or last) live product in this order, or null if there is none.
+     */
+    public Product first(boolean fromEnd) {
+        refresh();
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(order[fromEnd ? size - 1 - i : i]);
+            if (product != null) return product;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the given (live) ordinals arranged in this order, or in reverse.
+     */
+    public int[] sort(int[] ordinals, boolean descending) {
+        refresh();
+
+        int[] sorted = new int[ordinals.length];
+        int n = ordinals.length;
+        // k log k to sort the ranks, against one pass over the whole order for the bitset walk
+        if ((long) n * (32 - Integer.numberOfLeadingZeros(n)) < size) {
+            int[] ranks = new int[n];
+            for (int i = 0; i < n; i++) {
+                ranks[i] = rank[ordinals[i]];
+            }
+            Arrays.sort(ranks);
+            for (int i = 0; i < n; i++) {
+                sorted[descending ? n - 1 - i : i] = order[ranks[i]];
+            }
+        } else {
+            BitSet marked = new BitSet(size);
+            for (int ordinal : ordinals) {
+                marked.set(rank[ordinal]);
+            }
+            int i = 0;
+            if (descending) {
+                for (int pos = marked.previousSetBit(size - 1); pos >= 0; pos = marked.previousSetBit(pos - 1)) {
+                    sorted[i++] = order[pos];
+                }
+            } else {
+                for (int pos = marked.nextSetBit(0); pos >= 0; pos = marked.nextSetBit(pos + 1)) {
+                    sorted[i++] = order[pos];
+                }
+            }
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dictionary-encoded categories, keyed by catalog ordinal.
+ * Each distinct category (trimmed, case-insensitive, as the filter has always matched)
+ * gets a small integer code, every ordinal stores its code, and every code has an
+ * OrdinalBitmap of the ordinals in that category. Filtering by category is a map
+ * lookup, and the per-category counts of a result set take one pass over its
+ * ordinals' codes (or none at all for the whole catalog).
+ */
+public class CategoryIndex {
+
+    private static final int NO_CATEGORY = -1;
+
+    private final Map<String, Integer> codeByKey = new HashMap<>();
+    private final List<String> names = new ArrayList<>();          // code -> category as first seen
+    private final List<OrdinalBitmap> bitmaps = new ArrayList<>(); // code -> ordinals in the category
+    private int[] codeByOrdinal = new int[1024];
+
+    private static String key(String category) {
+        return category.trim().toLowerCase();
+    }
+
+    public void add(int ordinal, String category) {
+        if (ordinal >= codeByOrdinal.length) {
+            codeByOrdinal = Arrays.copyOf(codeByOrdinal, Math.max(codeByOrdinal.length * 2, ordinal + 1));
+        }
+        if (category == null || category.isBlank()) {
+            codeByOrdinal[ordinal] = NO_CATEGORY;
+            return;
+        }
+        Integer code = codeByKey.get(key(category));
+        if (code == null) {
+            code = names.size();
+            codeByKey.put(key(category), code);
+            names.add(category.trim());
+            bitmaps.add(new OrdinalBitmap());
+        }
+        codeByOrdinal[ordinal] = code;
+        bitmaps.get(code).add(ordinal);
+    }
+
+    public void remove(int ordinal) {
+        if (ordinal >= codeByOrdinal.length) return;
+        int code = codeByOrdinal[ordinal];
+        if (code != NO_CATEGORY) {
+            bitmaps.get(code).remove(ordinal);
+            codeByOrdinal[ordinal] = NO_CATEGORY;
+        }
+    }
+
+    /**
+     * Returns the ordinals in the category, or an empty bitmap for an unknown one.
+     * The bitmap is live: callers must not modify it.
+     */
+    public OrdinalBitmap get(String category) {
+        Integer code = category == null ? null : codeByKey.get(key(category));
+        return code == null ? new OrdinalBitmap() : bitmaps.get(code);
+    }
+
+    /**
+     * Counts, for every known category, how many of the given ordinals fall in it.
+     * Categories are looked up case-insensitively in the returned map.
+     * @param ordinals the (live) result set to count, or null to count the whole catalog
+     */
+    public Map<String, Integer> countByCategory(int[] ordinals) {
+        int[] counts = new int[names.size()];
+        if (ordinals == null) {
+            for (int code = 0; code < counts.length; code++) {
+                counts[code] = bitmaps.get(code).cardinality();
+            }
+        } else {
+            for (int ordinal : ordinals) {
+                int code = codeByOrdinal[ordinal];
+                if (code != NO_CATEGORY) counts[code]++;
+            }
+        }
+        Map<String, Integer> byName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int code = 0; code < counts.length; code++) {
+            byName.put(names.get(code), counts[code]);
+        }
+        return byName;
+    }
+}
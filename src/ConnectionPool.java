@@ -0,0 +1,341 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small, bounded JDBC connection pool.
+ * Physical connections are opened once and handed out wrapped in a proxy whose
+ * close() returns the connection to the pool instead of closing the socket.
+ * The pool works with any JDBC URL, so it can be pointed at an embedded database
+ * just as well as at MySQL.
+ *
+ * Connections held past the leak threshold are reported; the stack trace of the borrow
+ * is only captured when leak traces are turned on, since it costs a stack walk on every
+ * borrow. A connection still held past the reclaim threshold is taken back: it is
+ * closed under its borrower, who gets errors from then on, and its slot is freed so a
+ * leak can't shrink the pool for good.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+
+    private long borrowTimeoutMs = 10_000;
+    private long validationIdleMs = 5_000;  // Idle connections older than this are pinged before use
+    private long leakThresholdMs = 30_000;  // Borrowed connections held longer than this are reported
+    private long reclaimThresholdMs = 300_000; // ...and held longer than this are closed and their slot freed
+    private volatile boolean leakTraces;     // Record where each connection was borrowed, for the leak report
+
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger openCount = new AtomicInteger();
+    private volatile boolean shutdown;
+
+    // --- Metrics ---
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong leaksReclaimed = new AtomicLong();
+
+    private final ScheduledExecutorService leakDetector;
+
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive");
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.permits = new Semaphore(maxSize, true);
+
+        leakDetector = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-leak-detector");
+            t.setDaemon(true);
+            return t;
+        });
+        leakDetector.scheduleWithFixedDelay(this::detectLeaks, 10, 10, TimeUnit.SECONDS);
+    }
+
+    // --- Configuration ---
+    public void setBorrowTimeoutMs(long borrowTimeoutMs) { this.borrowTimeoutMs = borrowTimeoutMs; }
+    public void setValidationIdleMs(long validationIdleMs) { this.validationIdleMs = validationIdleMs; }
+    public void setLeakThresholdMs(long leakThresholdMs) { this.leakThresholdMs = leakThresholdMs; }
+    public void setReclaimThresholdMs(long reclaimThresholdMs) { this.reclaimThresholdMs = reclaimThresholdMs; }
+    public void setLeakTraces(boolean leakTraces) { this.leakTraces = leakTraces; }
+
+    /**
+     * Opens connections until at least minIdle are sitting idle in the pool,
+     * so the first queries after startup don't pay the connect handshake.
+     */
+    public void warmUp() throws SQLException {
+        while (!shutdown && idle.size() < minIdle && openCount.get() < maxSize) {
+            idle.offerLast(new PooledConnection(openPhysical()));
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting up to the borrow timeout for one to free up.
+     * The returned connection must be closed to give it back to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) throw new SQLException("Connection pool has been shut down");
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLException("Timed out after " + borrowTimeoutMs + " ms waiting for a database connection");
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrOpen();
+            recordWait(System.nanoTime() - start);
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowTrace = leakTraces ? new Throwable("Connection borrowed here") : null;
+            borrowed.add(pooled);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdleOrOpen() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            validationFailures.incrementAndGet();
+            discard(pooled);
+        }
+        return new PooledConnection(openPhysical());
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) return false;
+            if (System.currentTimeMillis() - pooled.returnedAt < validationIdleMs) return true;
+            return pooled.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, user, password);
+        openCount.incrementAndGet();
+        return conn;
+    }
+
+    private void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) return; // Reclaimed as a leak; its permit is already back
+        try {
+            if (shutdown || pooled.physical.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            // Never hand the next borrower someone else's half-finished transaction
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.returnedAt = System.currentTimeMillis();
+            pooled.borrowTrace = null;
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        openCount.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : borrowed) {
+            long heldMs = now - pooled.borrowedAt;
+            if (heldMs > reclaimThresholdMs) {
+                reclaim(pooled, heldMs);
+            } else if (!pooled.leakReported && heldMs > leakThresholdMs) {
+                pooled.leakReported = true;
+                leaksDetected.incrementAndGet();
+                Throwable trace = pooled.borrowTrace;
+                if (trace != null) {
+                    System.err.println("Possible connection leak: connection held for " + heldMs + " ms");
+                    trace.printStackTrace();
+                } else {
+                    System.err.println("Possible connection leak: connection held for " + heldMs
+                            + " ms (run with -Dshopeasy.db.leakTraces=true to see where it was borrowed)");
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a leaked connection back. Removing it from the borrowed set decides the race
+     * with its borrower closing it: whichever gets there first releases the permit.
+     */
+    private void reclaim(PooledConnection pooled, long heldMs) {
+        if (!borrowed.remove(pooled)) return;
+        pooled.reclaimed = true;
+        leaksReclaimed.incrementAndGet();
+        System.err.println("Reclaiming connection held for " + heldMs + " ms; its borrower will get errors from now on");
+        openCount.decrementAndGet();
+        try {
+            // abort() rather than close(): it doesn't wait on a statement the borrower may still be running
+            pooled.physical.abort(Runnable::run);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                pooled.physical.close();
+            } catch (SQLException ignored) {
+                // Already broken, nothing else to do
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes every idle connection and refuses further borrows.
+     * Connections still on loan are closed as they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        leakDetector.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    // --- Metrics getters ---
+    public int getActiveCount() { return borrowed.size(); }
+    public int getIdleCount() { return idle.size(); }
+    public int getOpenCount() { return openCount.get(); }
+    public int getMaxSize() { return maxSize; }
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getTimeoutCount() { return timeoutCount.get(); }
+    public long getValidationFailures() { return validationFailures.get(); }
+    public long getLeaksDetected() { return leaksDetected.get(); }
+    public long getLeaksReclaimed() { return leaksReclaimed.get(); }
+    public double getAverageWaitMillis() {
+        long count = borrowCount.get();
+        return count == 0 ? 0.0 : totalWaitNanos.get() / (count * 1_000_000.0);
+    }
+    public double getMaxWaitMillis() { return maxWaitNanos.get() / 1_000_000.0; }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool[active=%d, idle=%d, open=%d/%d, borrows=%d, avgWait=%.2fms, maxWait=%.2fms, timeouts=%d, leaks=%d, reclaimed=%d]",
+                getActiveCount(), getIdleCount(), getOpenCount(), maxSize, getBorrowCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(), getTimeoutCount(), getLeaksDetected(), getLeaksReclaimed());
+    }
+
+    /**
+     * One physical connection plus the bookkeeping the pool needs for it.
+     */
+    private class PooledConnection {
+        private final Connection physical;
+        private volatile long borrowedAt;
+        private volatile long returnedAt;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+        private volatile boolean reclaimed;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.returnedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * Each borrow gets its own handle, so closing a stale handle twice
+         * can never return the connection on someone else's behalf.
+         */
+        Connection newHandle() {
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Handle(this));
+        }
+    }
+
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (closed) throw new SQLException("Connection has already been returned to the pool");
+                    if (pooled.reclaimed) throw new SQLException("Connection was held too long and has been reclaimed by the pool");
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -1,37 +1,242 @@
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.List;
-import java.util.ArrayList;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import javax.swing.JOptionPane;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+/**
+ * Entry point for all persistence. The UI only talks to these static methods;
+ * they delegate to the product, user and order repositories of the configured backend:
+ *
+ *   -Dshopeasy.db.backend=mysql   (default) the MySQL server configured below
+ *   -Dshopeasy.db.backend=h2      an embedded H2 database file, created on first use
+ *   -Dshopeasy.db.backend=memory  concurrent in-memory stores, nothing to install
+ *
+ * The SQL backends also honour -Dshopeasy.db.url, -Dshopeasy.db.user and -Dshopeasy.db.password.
+ */
 public class DBManager {
 
     // --- CONFIGURE THIS ---
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/shopeasy_db";
+    // useCursorFetch lets statements with a fetch size read through a server-side cursor. It turns
+    // on server-side prepared statements for every statement, so they are cached per pooled
+    // connection; otherwise each prepareStatement costs an extra round trip to the server.
+    private static final String DB_URL = "jdbc:mysql://localhost:3306/shopeasy_db"
+            + "?useCursorFetch=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
     private static final String DB_USER = "root";
     private static final String DB_PASSWORD = "cvrce"; // Your Password
     // ----------------------
 
+    private static final String H2_URL = "jdbc:h2:./shopeasy_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+    private static final String MYSQL_DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static final String H2_DRIVER = "org.h2.Driver";
+
+    private static final String BACKEND = System.getProperty("shopeasy.db.backend", "mysql").toLowerCase();
+
+    // Rows per cursor fetch and products per chunk when streaming the catalog.
+    // Override with -Dshopeasy.catalog.fetchSize=... / -Dshopeasy.catalog.chunkSize=...
+    public static final int CATALOG_FETCH_SIZE = Integer.getInteger("shopeasy.catalog.fetchSize", 1000);
+    public static final int CATALOG_CHUNK_SIZE = Integer.getInteger("shopeasy.catalog.chunkSize", 500);
+
+    // Catalogs with more live products than this are queried page by page in the store instead
+    // of being loaded into the client. Override with -Dshopeasy.catalog.remoteThreshold=...
+    public static final int CATALOG_REMOTE_THRESHOLD = Integer.getInteger("shopeasy.catalog.remoteThreshold", 200_000);
+
+    // Group commit for saveOrderAsync: at most this many orders per transaction,
+    // waiting at most this long for others to join it once orders are queuing up.
+    // A checkout that finds the queue empty is committed without waiting.
+    private static final int ORDER_BATCH_SIZE = Integer.getInteger("shopeasy.orders.batchSize", 50);
+    private static final long ORDER_BATCH_LINGER_MS = Long.getLong("shopeasy.orders.lingerMs", 5);
+
+    private static volatile OrderWriter orderWriter;
+
+    private static final int POOL_MAX_SIZE = 10;
+    private static final int POOL_MIN_IDLE = 3;
+
+    // Backend state, set up once by initBackend()
+    private static volatile boolean initialized;
+    private static ConnectionPool pool; // null for the in-memory backend
+
+    static {
+        // A single hook: the JVM runs hooks concurrently, and queued orders need the pool to drain
+        Runtime.getRuntime().addShutdownHook(new Thread(DBManager::shutdown, "db-shutdown"));
+    }
+    private static ProductRepository productRepository;
+    private static UserRepository userRepository;
+    private static OrderRepository orderRepository;
+
     /**
-     * Establishes a connection to the database.
+     * Creates the configured backend's repositories (and connection pool, for SQL backends) on first use.
      */
-    public static Connection getConnection() throws SQLException {
+    private static void initBackend() {
+        if (initialized) return;
+        synchronized (DBManager.class) {
+            if (initialized) return;
+            switch (BACKEND) {
+                case "memory":
+                    productRepository = new InMemoryProductRepository(Integer.getInteger("shopeasy.memory.products", 0));
+                    userRepository = new InMemoryUserRepository();
+                    orderRepository = new InMemoryOrderRepository();
+                    break;
+                case "h2":
+                    pool = createPool(H2_DRIVER, H2_URL, "sa", "");
+                    createEmbeddedSchema(pool);
+                    useJdbcRepositories(pool);
+                    break;
+                case "mysql":
+                    pool = createPool(MYSQL_DRIVER, DB_URL, DB_USER, DB_PASSWORD);
+                    useJdbcRepositories(pool);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown shopeasy.db.backend: " + BACKEND);
+            }
+            System.out.println("Using " + BACKEND + " persistence backend.");
+            initialized = true;
+        }
+    }
+
+    /**
+     * Stops the retention job and writes the orders still queued, then closes the pool.
+     */
+    private static void shutdown() {
+        OrderRetentionJob.shutdown();
+        OrderWriter w = orderWriter;
+        if (w != null) w.close();
+        ConnectionPool p;
+        synchronized (DBManager.class) {
+            p = pool;
+        }
+        if (p != null) p.shutdown();
+    }
+
+    /**
+     * Checks that the configured backend can be used, without connecting: the backend
+     * name is known and its JDBC driver is on the classpath. Call at startup, so a
+     * missing driver is reported as such rather than as a failed login later on.
+     *
+     * @throws IllegalStateException saying what is missing
+     */
+    public static void checkBackend() {
+        switch (BACKEND) {
+            case "memory":
+                break;
+            case "h2":
+                loadDriver(H2_DRIVER);
+                break;
+            case "mysql":
+                loadDriver(MYSQL_DRIVER);
+                break;
+            default:
+                throw new IllegalStateException("Unknown shopeasy.db.backend: " + BACKEND);
+        }
+    }
+
+    private static void loadDriver(String driverClass) {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
+            Class.forName(driverClass);
         } catch (ClassNotFoundException e) {
-            System.err.println("MySQL JDBC Driver not found. Did you add it to your project's build path?");
+            throw new IllegalStateException("The " + BACKEND + " backend needs the JDBC driver " + driverClass
+                    + ", which is not on the classpath. Put its jar in lib/ and add it to the classpath (see the README).", e);
+        }
+    }
+
+    private static ConnectionPool createPool(String driverClass, String defaultUrl, String defaultUser, String defaultPassword) {
+        loadDriver(driverClass);
+        ConnectionPool p = new ConnectionPool(
+            System.getProperty("shopeasy.db.url", defaultUrl),
+            System.getProperty("shopeasy.db.user", defaultUser),
+            System.getProperty("shopeasy.db.password", defaultPassword),
+            POOL_MAX_SIZE, POOL_MIN_IDLE);
+        // Borrow stack traces cost a stack walk per query, so leak reports only carry them on request
+        p.setLeakTraces(Boolean.getBoolean("shopeasy.db.leakTraces"));
+        p.setReclaimThresholdMs(Long.getLong("shopeasy.db.reclaimMs", 300_000));
+        return p;
+    }
+
+    private static void useJdbcRepositories(ConnectionPool p) {
+        productRepository = new JdbcProductRepository(p, CATALOG_FETCH_SIZE);
+        userRepository = new JdbcUserRepository(p);
+        orderRepository = new JdbcOrderRepository(p);
+    }
+
+    /**
+     * Creates the schema in the embedded database if it isn't there yet.
+     * Same tables as the MySQL setup in the README.
+     */
+    private static void createEmbeddedSchema(ConnectionPool p) {
+        String[] ddl = {
+            "CREATE TABLE IF NOT EXISTS users (" +
+            "  id INT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(50) UNIQUE NOT NULL," +
+            "  salt VARCHAR(255) NOT NULL, hash VARCHAR(255) NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS products (" +
+            "  id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR_IGNORECASE(100) NOT NULL, price DECIMAL(10, 2) NOT NULL," +
+            "  imagePath VARCHAR(255), category VARCHAR_IGNORECASE(50)," + // Like MySQL's default _ci collation
+            "  updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)," +
+            "  deleted BOOLEAN NOT NULL DEFAULT FALSE)",
+            "CREATE INDEX IF NOT EXISTS idx_products_updated_at ON products (updated_at)",
+            "CREATE INDEX IF NOT EXISTS idx_products_category_price ON products (category, price)",
+            "CREATE TABLE IF NOT EXISTS orders (" +
+            "  id INT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL," +
+            "  order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, total_price DECIMAL(10, 2) NOT NULL," +
+            "  order_id_string VARCHAR(50) UNIQUE NOT NULL, FOREIGN KEY (user_id) REFERENCES users(id))",
+            "CREATE INDEX IF NOT EXISTS idx_orders_user_date ON orders (user_id, order_date, id)",
+            "CREATE INDEX IF NOT EXISTS idx_orders_date ON orders (order_date)",
+            "CREATE TABLE IF NOT EXISTS order_items (" +
+            "  id INT AUTO_INCREMENT PRIMARY KEY, order_id INT NOT NULL, product_id INT NOT NULL," +
+            "  quantity INT NOT NULL, price_per_item DECIMAL(10, 2) NOT NULL," +
+            "  FOREIGN KEY (order_id) REFERENCES orders(id), FOREIGN KEY (product_id) REFERENCES products(id))"
+        };
+        try (Connection conn = p.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : ddl) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error creating the embedded database schema:");
             e.printStackTrace();
-            throw new SQLException("JDBC Driver not found", e);
         }
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+    }
+
+    /**
+     * Borrows a connection from the pool.
+     * Closing the returned connection hands it back to the pool.
+     */
+    public static Connection getConnection() throws SQLException {
+        initBackend();
+        if (pool == null) {
+            throw new SQLException("The " + BACKEND + " backend has no SQL connection");
+        }
+        return pool.getConnection();
+    }
+
+    /**
+     * Opens the pool's minimum idle connections ahead of time.
+     * Called from a background thread at startup so the first login doesn't wait on it.
+     */
+    public static void warmUpConnectionPool() {
+        initBackend();
+        if (pool == null) return;
+        try {
+            pool.warmUp();
+            System.out.println("Connection pool warmed up: " + pool);
+        } catch (SQLException e) {
+            System.err.println("Could not pre-warm the connection pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a one-line summary of pool usage (active/idle counts, wait times).
+     */
+    public static String getPoolStats() {
+        ConnectionPool p = pool;
+        return p == null ? "ConnectionPool[not started]" : p.toString();
     }
     
     /**
@@ -41,6 +246,7 @@ public class DBManager {
         try (Connection conn = getConnection()) {
             if (conn != null) {
                 System.out.println("✅ Connection to shopeasy_db successful!");
+                System.out.println(getPoolStats());
             } else {
                 System.out.println("❌ Failed to make connection.");
             }
@@ -55,64 +261,84 @@ public class DBManager {
     // =========================================================================
     
     /**
-     * Fetches all products from the 'products' table in the database.
+     * Fetches all products from the catalog.
      */
     public static List<Product> getAllProducts() {
-        List<Product> products = new ArrayList<>();
-        String sql = "SELECT * FROM products;";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Product product = new Product(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getDouble("price"),
-                    rs.getString("imagePath"),
-                    rs.getString("category")
-                );
-                products.add(product);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error fetching products from database:");
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Could not load product data from database.", "Database Error", JOptionPane.ERROR_MESSAGE);
-        }
-        return products;
+        initBackend();
+        return productRepository.getAllProducts(CATALOG_CHUNK_SIZE);
     }
-    
+
+    /**
+     * Streams the catalog in id order, handing each chunk of products to the consumer
+     * as soon as it has been read, so callers can start showing products before the last row.
+     *
+     * @param chunkSize number of products per chunk handed to the consumer.
+     * @return true if the whole catalog was read, false if a database error stopped it.
+     */
+    public static boolean streamProducts(int chunkSize, Consumer<List<Product>> chunkConsumer) {
+        initBackend();
+        return productRepository.streamProducts(chunkSize, chunkConsumer);
+    }
+
+    /**
+     * Returns the current catalog sync token: the newest change stamp in the catalog.
+     * Take it before loading the catalog, then pass it to getProductChangesSince.
+     */
+    public static Timestamp getCatalogSyncToken() {
+        initBackend();
+        return productRepository.getCatalogSyncToken();
+    }
+
+    /**
+     * Returns only the products changed or tombstoned since the given sync token.
+     * @return the delta, or null if the store could not be read.
+     */
+    public static CatalogDelta getProductChangesSince(Timestamp syncToken) {
+        initBackend();
+        return productRepository.getProductChangesSince(syncToken);
+    }
+
     /**
-     * Inserts a new product into the database.
-     * The product's ID is ignored as the database will auto-generate it.
+     * Loads one page of the products matching the query, filtered and sorted by the store.
+     * Uses keyset pagination on (sort column, id): pass null for the first page,
+     * then the last product already shown.
+     *
+     * @param limit maximum number of products in the page.
+     * @return the page, or null if the store could not be read.
+     */
+    public static List<Product> getProductsPage(ProductQuery query, Product after, int limit) {
+        initBackend();
+        return productRepository.getProductsPage(query, after, limit);
+    }
+
+    /**
+     * Counts the products matching the query and finds their price range, without loading them.
+     * @return the summary, or null if the store could not be read.
+     */
+    public static ProductSummary getProductSummary(ProductQuery query) {
+        initBackend();
+        return productRepository.getProductSummary(query);
+    }
+
+    /**
+     * Removes a product from the catalog by tombstoning it.
+     * @return true if a product was marked as deleted.
+     */
+    public static boolean deleteProduct(int productId) {
+        initBackend();
+        return productRepository.deleteProduct(productId);
+    }
+
+    /**
+     * Inserts a new product into the catalog.
+     * The product's ID is ignored as the store will auto-generate it.
      *
      * @param product The Product object to save.
      * @return true if the insertion was successful, false otherwise.
      */
     public static boolean addProduct(Product product) {
-        String sql = "INSERT INTO products (name, price, imagePath, category) VALUES (?, ?, ?, ?);";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, product.getName());
-            stmt.setDouble(2, product.getPrice());
-            stmt.setString(3, product.getImagePath());
-            stmt.setString(4, product.getCategory());
-            
-            int rowsAffected = stmt.executeUpdate();
-            
-            // executeUpdate() returns the number of rows affected. 
-            // If it's > 0, the insert was successful.
-            return rowsAffected > 0;
-            
-        } catch (SQLException e) {
-            System.err.println("Error adding product to database:");
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Database error: Could not save the product.", "Database Error", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
+        initBackend();
+        return productRepository.addProduct(product);
     }
 
     // =========================================================================
@@ -120,84 +346,33 @@ public class DBManager {
     // =========================================================================
 
     /**
-     * Registers a new user in the database.
+     * Registers a new user.
      * Handles salt generation and password hashing.
      * @return true if successful, false if username is taken.
      */
     public static boolean registerUser(String username, String password) {
-        String checkUserSql = "SELECT COUNT(*) FROM users WHERE username = ?;";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement checkStmt = conn.prepareStatement(checkUserSql)) {
-
-            checkStmt.setString(1, username);
-            try (ResultSet rs = checkStmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    return false; // Username is already taken
-                }
-            }
-
-            String salt = generateSalt();
-            String hash = hashPassword(password, salt);
-
-            String insertSql = "INSERT INTO users (username, salt, hash) VALUES (?, ?, ?);";
-            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                insertStmt.setString(1, username);
-                insertStmt.setString(2, salt);
-                insertStmt.setString(3, hash);
-                insertStmt.executeUpdate();
-                return true; // Registration successful
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Database error during registration: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        initBackend();
+        return userRepository.registerUser(username, password);
     }
 
     /**
-     * Authenticates a user against the database.
-     * @return a User object (now with database ID) if successful, null otherwise.
+     * Authenticates a user.
+     * @return a User object (with its stored ID) if successful, null otherwise.
      */
     public static User authenticateUser(String username, String password) {
-        String sql = "SELECT id, salt, hash FROM users WHERE username = ?;";
-
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            try (ResultSet rs = stmt.executeQuery()) {
-                
-                if (rs.next()) { // User was found
-                    String dbSalt = rs.getString("salt");
-                    String dbHash = rs.getString("hash");
-                    
-                    String hashedInput = hashPassword(password, dbSalt);
-                    
-                    if (hashedInput.equals(dbHash)) {
-                        int userId = rs.getInt("id"); 
-                        return new User(userId, username, dbSalt, dbHash);
-                    }
-                }
-                return null; // User not found or password incorrect
-            }
-        } catch (SQLException e) {
-            System.err.println("Database error during authentication: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
+        initBackend();
+        return userRepository.authenticateUser(username, password);
     }
 
-    // --- Security helper methods (copied from User.java) ---
-    private static String generateSalt() {
+    // --- Security helper methods (copied from User.java), shared by the UserRepository implementations ---
+    static String generateSalt() {
         SecureRandom random = new SecureRandom();
         byte[] saltBytes = new byte[16];
         random.nextBytes(saltBytes);
         return Base64.getEncoder().encodeToString(saltBytes);
     }
 
-    private static String hashPassword(String password, String salt) {
+    static String hashPassword(String password, String salt) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             digest.update(salt.getBytes());
@@ -209,144 +384,92 @@ public class DBManager {
     }
 
     // =========================================================================
-    // ORDER METHODS (ALL NEW)
+    // ORDER METHODS
     // =========================================================================
 
     /**
-     * Saves a completed order to the database. This is a transaction.
+     * Saves a completed order on its own. This is a transaction.
      * @return true if the save was successful.
      */
     public static boolean saveOrder(User user, Order order) {
-        String insertOrderSql = "INSERT INTO orders (user_id, order_date, total_price, order_id_string) VALUES (?, ?, ?, ?);";
-        String insertItemSql = "INSERT INTO order_items (order_id, product_id, quantity, price_per_item) VALUES (?, ?, ?, ?);";
-        
-        Connection conn = null;
-        try {
-            conn = getConnection();
-            conn.setAutoCommit(false); 
-            
-            int dbOrderId; 
-            
-            try (PreparedStatement orderStmt = conn.prepareStatement(insertOrderSql, PreparedStatement.RETURN_GENERATED_KEYS)) {
-                orderStmt.setInt(1, user.getId()); 
-                orderStmt.setTimestamp(2, java.sql.Timestamp.valueOf(order.getOrderDate()));
-                orderStmt.setDouble(3, order.getTotalAmount());
-                orderStmt.setString(4, order.getOrderId());
-                
-                orderStmt.executeUpdate();
-                
-                try (ResultSet generatedKeys = orderStmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        dbOrderId = generatedKeys.getInt(1);
-                    } else {
-                        throw new SQLException("Creating order failed, no ID obtained.");
-                    }
-                }
-            }
-            
-            try (PreparedStatement itemStmt = conn.prepareStatement(insertItemSql)) {
-                for (OrderItem item : order.getItems()) {
-                    itemStmt.setInt(1, dbOrderId);
-                    itemStmt.setInt(2, item.getProductId()); 
-                    itemStmt.setInt(3, item.getQuantity());
-                    itemStmt.setDouble(4, item.getPrice());
-                    itemStmt.addBatch(); 
-                }
-                itemStmt.executeBatch(); 
-            }
-            
-            conn.commit(); 
-            return true;
+        initBackend();
+        return orderRepository.saveOrder(user, order);
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Transaction failed. Rolling back changes.");
-            e.printStackTrace();
-            try {
-                if (conn != null) conn.rollback(); 
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
-            return false;
-        } finally {
-            try {
-                if (conn != null) {
-                    conn.setAutoCommit(true); 
-                    conn.close();
+    /**
+     * Queues an order on the shared group-commit writer instead of committing it alone.
+     * Checkouts that queue up behind each other share one transaction; a lone one commits at once.
+     * @return a future completing with true once the order's batch has committed.
+     */
+    public static CompletableFuture<Boolean> saveOrderAsync(User user, Order order) {
+        return getOrderWriter().submit(user, order);
+    }
+
+    private static OrderWriter getOrderWriter() {
+        OrderWriter w = orderWriter;
+        if (w == null) {
+            synchronized (DBManager.class) {
+                w = orderWriter;
+                if (w == null) {
+                    w = new OrderWriter(ORDER_BATCH_SIZE, ORDER_BATCH_LINGER_MS);
+                    orderWriter = w;
                 }
-            } catch (SQLException e) {
-                e.printStackTrace();
             }
         }
+        return w;
     }
 
     /**
-     * Loads all order history for a given user from the database.
+     * Writes a batch of orders in a single transaction; any failure rolls back the whole batch.
+     */
+    static void saveOrderBatch(List<OrderWriter.PendingOrder> batch) throws SQLException {
+        initBackend();
+        orderRepository.saveOrderBatch(batch);
+    }
+
+    /**
+     * Loads all order history for a given user, newest first.
      */
     public static List<Order> getOrderHistory(User user) {
-        List<Order> orderHistory = new ArrayList<>();
-        String orderSql = "SELECT * FROM orders WHERE user_id = ? ORDER BY order_date DESC;";
-        String itemSql = "SELECT oi.*, p.name " +
-                         "FROM order_items oi " +
-                         "JOIN products p ON oi.product_id = p.id " +
-                         "WHERE oi.order_id = ?;";
-
-        try (Connection conn = getConnection();
-             PreparedStatement orderStmt = conn.prepareStatement(orderSql)) {
-             
-            orderStmt.setInt(1, user.getId());
-            
-            try (ResultSet orderRs = orderStmt.executeQuery()) {
-                while (orderRs.next()) {
-                    String orderIdStr = orderRs.getString("order_id_string");
-                    LocalDateTime orderDate = orderRs.getTimestamp("order_date").toLocalDateTime();
-                    double totalAmount = orderRs.getDouble("total_price");
-                    int dbOrderId = orderRs.getInt("id"); 
-
-                    List<OrderItem> itemsForThisOrder = new ArrayList<>();
-
-                    try (PreparedStatement itemStmt = conn.prepareStatement(itemSql)) {
-                        itemStmt.setInt(1, dbOrderId);
-                        try (ResultSet itemRs = itemStmt.executeQuery()) {
-                            while (itemRs.next()) {
-                                itemsForThisOrder.add(new OrderItem(
-                                    itemRs.getInt("product_id"),
-                                    itemRs.getString("p.name"), 
-                                    itemRs.getInt("quantity"),
-                                    itemRs.getDouble("price_per_item")
-                                ));
-                            }
-                        }
-                    }
-                    
-                    orderHistory.add(new Order(orderIdStr, orderDate, totalAmount, itemsForThisOrder));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading order history:");
-            e.printStackTrace();
-        }
-        return orderHistory;
+        initBackend();
+        return orderRepository.getOrderHistory(user);
     }
 
     /**
-     * Deletes all orders from the database that are older than 7 days.
+     * Loads one page of a user's order history, newest first.
+     * Uses keyset pagination on (order_date, id): pass null/0 for the first page,
+     * then the date and database id of the last order already shown.
+     *
+     * @param limit maximum number of orders in the page.
      */
-    public static void cleanupOldOrders() {
-        String sql = "DELETE FROM orders WHERE order_date < NOW() - INTERVAL 7 DAY;";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-             
-            int rowsDeleted = stmt.executeUpdate();
-            if (rowsDeleted > 0) {
-                System.out.println("Cleanup successful: Deleted " + rowsDeleted + " old order(s).");
-            } else {
-                System.out.println("Order cleanup ran: No old orders to delete.");
-            }
-             
-        } catch (SQLException e) {
-            System.err.println("Error cleaning up old orders:");
-            e.printStackTrace();
-        }
+    public static List<Order> getOrderHistoryPage(User user, LocalDateTime afterOrderDate, int afterId, int limit) {
+        initBackend();
+        return orderRepository.getOrderHistoryPage(user, afterOrderDate, afterId, limit);
+    }
+
+    /**
+     * Computes order count, total spent and latest order date for a user.
+     */
+    public static OrderSummary getOrderSummary(User user) {
+        initBackend();
+        return orderRepository.getOrderSummary(user);
+    }
+
+    /**
+     * Returns the smallest and largest id among orders placed before the cutoff,
+     * or null if there are none.
+     */
+    public static int[] getExpiredOrderIdRange(LocalDateTime cutoff) {
+        initBackend();
+        return orderRepository.getExpiredOrderIdRange(cutoff);
+    }
+
+    /**
+     * Deletes expired orders whose id falls in [fromId, toId], together with their items.
+     * @return the number of rows deleted, or -1 on a database error.
+     */
+    public static int deleteExpiredOrdersInRange(LocalDateTime cutoff, int fromId, int toId) {
+        initBackend();
+        return orderRepository.deleteExpiredOrdersInRange(cutoff, fromId, toId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-operation metrics for every DBManager operation.
+ * Each operation has one OperationStats, registered as a JMX MBean under
+ * "shopeasy:type=DbMetrics,name=<operation>" and dumped to the log every
+ * shopeasy.metrics.logIntervalSec seconds (default 60, 0 disables the dump).
+ */
+public class DbMetrics {
+
+    private static final List<OperationStats> ALL = new ArrayList<>();
+
+    // --- Products ---
+    public static final OperationStats STREAM_PRODUCTS = register("streamProducts");
+    public static final OperationStats ADD_PRODUCT = register("addProduct");
+    public static final OperationStats DELETE_PRODUCT = register("deleteProduct");
+    public static final OperationStats GET_CATALOG_SYNC_TOKEN = register("getCatalogSyncToken");
+    public static final OperationStats GET_PRODUCT_CHANGES = register("getProductChangesSince");
+    public static final OperationStats GET_PRODUCTS_PAGE = register("getProductsPage");
+    public static final OperationStats GET_PRODUCT_SUMMARY = register("getProductSummary");
+
+    // --- Users ---
+    public static final OperationStats REGISTER_USER = register("registerUser");
+    public static final OperationStats AUTHENTICATE_USER = register("authenticateUser");
+
+    // --- Orders ---
+    public static final OperationStats SAVE_ORDER = register("saveOrder");
+    public static final OperationStats SAVE_ORDER_BATCH = register("saveOrderBatch");
+    public static final OperationStats GET_ORDER_HISTORY = register("getOrderHistory");
+    public static final OperationStats GET_ORDER_HISTORY_PAGE = register("getOrderHistoryPage");
+    public static final OperationStats GET_ORDER_SUMMARY = register("getOrderSummary");
+    public static final OperationStats GET_EXPIRED_ORDER_RANGE = register("getExpiredOrderIdRange");
+    public static final OperationStats DELETE_EXPIRED_ORDERS = register("deleteExpiredOrdersInRange");
+
+    static {
+        long interval = Long.getLong("shopeasy.metrics.logIntervalSec", 60);
+        if (interval > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "db-metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(DbMetrics::logSnapshot, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    private static OperationStats register(String name) {
+        OperationStats stats = new OperationStats(name);
+        ALL.add(stats);
+        Metrics.register("shopeasy:type=DbMetrics,name=" + name, stats);
+        return stats;
+    }
+
+    /**
+     * Prints one line per operation that has been called at least once.
+     */
+    public static void logSnapshot() {
+        StringBuilder sb = new StringBuilder("--- DB metrics ---");
+        for (OperationStats stats : ALL) {
+            if (stats.getCount() > 0) {
+                sb.append(System.lineSeparator()).append(stats);
+            }
+        }
+        sb.append(System.lineSeparator()).append(DBManager.getPoolStats());
+        System.out.println(sb);
+    }
+}
@@ -0,0 +1,246 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo-tolerant word index over product names, keyed by catalog ordinal.
+ * Uses the symmetric-delete idea from SymSpell: every distinct word in the catalog is
+ * stored under each string obtained by deleting up to MAX_DISTANCE characters from
+ * its first PREFIX_LENGTH characters. A misspelled query word generates its own
+ * deletes the same way, and any word sharing one of them is a candidate, which is
+ * then checked with a bounded edit distance. No other words are compared at all.
+ *
+ * Words shorter than MIN_FUZZY_LENGTH, and words without letters (sizes, model
+ * numbers), must match exactly.
+ *
+ * Not thread-safe, like the ProductCatalog that owns it: search() keeps its per-ordinal
+ * scratch arrays between calls and only clears the entries it touched.
+ */
+public class FuzzyNameIndex {
+
+    static final int MAX_DISTANCE = 2;
+    static final int PREFIX_LENGTH = 7;
+    static final int MIN_FUZZY_LENGTH = 3;
+
+    /**
+     * Ordinals that matched every query word, ascending, with the summed edit
+     * distance of each (0 would be an exact word match).
+     */
+    public static class Matches {
+        private final int[] ordinals;
+        private final int[] distances;
+
+        Matches(int[] ordinals, int[] distances) {
+            this.ordinals = ordinals;
+            this.distances = distances;
+        }
+
+        public int[] getOrdinals() { return ordinals; }
+
+        /**
+         * Returns the distance of an ordinal that is in this result.
+         */
+        public int distanceOf(int ordinal) {
+            return distances[Arrays.binarySearch(ordinals, ordinal)];
+        }
+    }
+
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final List<IntList> postings = new ArrayList<>();    // word id -> ordinals containing it
+    private final Map<String, IntList> deletes = new HashMap<>(); // delete -> word ids
+    private final BitSet removed = new BitSet();
+    private int ordinalCount;
+
+    // Scratch for search(), all zero between calls; grown to ordinalCount as needed
+    private int[] tokensMatched = new int[0];
+    private int[] totalDistance = new int[0];
+
+    /**
+     * Splits a lowercased name or query into words.
+     */
+    static List<String> tokenize(String lower) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) start = i;
+            if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isFuzzy(String word) {
+        if (word.length() < MIN_FUZZY_LENGTH) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isLetter(word.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indexes a product name under the given ordinal. Ordinals must be added in increasing order.
+     */
+    public void add(int ordinal, String name) {
+        ordinalCount = Math.max(ordinalCount, ordinal + 1);
+        if (name == null) return;
+        for (String word : tokenize(name.toLowerCase())) {
+            Integer id = wordIds.get(word);
+            if (id == null) {
+                id = words.size();
+                wordIds.put(word, id);
+                words.add(word);
+                postings.add(new IntList(2));
+                if (isFuzzy(word)) {
+                    for (String delete : deletesOf(word)) {
+                        deletes.computeIfAbsent(delete, k -> new IntList(1)).add(id);
+                    }
+                }
+            }
+            IntList list = postings.get(id);
+            // A name can repeat a word; keep each ordinal once per list
+            if (list.isEmpty() || list.get(list.size() - 1) != ordinal) {
+                list.add(ordinal);
+            }
+        }
+    }
+
+    public void remove(int ordinal) {
+        removed.set(ordinal);
+    }
+
+    /**
+     * The word's prefix with up to MAX_DISTANCE characters deleted, the prefix itself included.
+     */
+    private static Set<String> deletesOf(String word) {
+        Set<String> result = new HashSet<>();
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        result.add(prefix);
+        collectDeletes(prefix, MAX_DISTANCE, result);
+        return result;
+    }
+
+    private static void collectDeletes(String word, int budget, Set<String> out) {
+        if (budget == 0 || word.length() <= 1) return;
+        for (int i = 0; i < word.length(); i++) {
+            String shorter = word.substring(0, i) + word.substring(i + 1);
+            if (out.add(shorter)) {
+                collectDeletes(shorter, budget - 1, out);
+            }
+        }
+    }
+
+    /**
+     * Finds the live ordinals whose name has, for every word of the (normalized) query,
+     * a word within the allowed edit distance: 1 for words up to 4 characters, 2 beyond.
+     */
+    public Matches search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) return new Matches(new int[0], new int[0]);
+
+        if (tokensMatched.length < ordinalCount) {
+            tokensMatched = new int[ordinalCount];
+            totalDistance = new int[ordinalCount];
+        }
+        // Only the first token adds ordinals; later tokens can only advance those, so
+        // touched lists every entry this search changes
+        IntList touched = new IntList();
+        try {
+            for (int t = 0; t < tokens.size(); t++) {
+                List<int[]> candidates = candidateWords(tokens.get(t)); // {wordId, distance}, nearest first
+                for (int[] candidate : candidates) {
+                    IntList list = postings.get(candidate[0]);
+                    for (int i = 0; i < list.size(); i++) {
+                        int ordinal = list.get(i);
+                        // First hit per token wins, and candidates come nearest first, so it is the minimum
+                        if (tokensMatched[ordinal] != t) continue;
+                        if (t == 0) touched.add(ordinal);
+                        tokensMatched[ordinal] = t + 1;
+                        totalDistance[ordinal] += candidate[1];
+                    }
+                }
+            }
+
+            IntList ordinals = new IntList();
+            IntList distances = new IntList();
+            int[] sorted = touched.toArray();
+            Arrays.sort(sorted);
+            for (int ordinal : sorted) {
+                if (tokensMatched[ordinal] == tokens.size() && !removed.get(ordinal)) {
+                    ordinals.add(ordinal);
+                    distances.add(totalDistance[ordinal]);
+                }
+            }
+            return new Matches(ordinals.toArray(), distances.toArray());
+        } finally {
+            for (int i = 0; i < touched.size(); i++) {
+                int ordinal = touched.get(i);
+                tokensMatched[ordinal] = 0;
+                totalDistance[ordinal] = 0;
+            }
+        }
+    }
+
+    private List<int[]> candidateWords(String token) {
+        List<int[]> candidates = new ArrayList<>();
+        Integer exact = wordIds.get(token);
+        if (exact != null) candidates.add(new int[]{exact, 0});
+        if (!isFuzzy(token)) return candidates;
+
+        int maxDistance = token.length() <= 4 ? 1 : MAX_DISTANCE;
+        Set<Integer> checked = new HashSet<>();
+        if (exact != null) checked.add(exact);
+        for (String delete : deletesOf(token)) {
+            IntList ids = deletes.get(delete);
+            if (ids == null) continue;
+            for (int i = 0; i < ids.size(); i++) {
+                int id = ids.get(i);
+                if (!checked.add(id)) continue;
+                int distance = boundedDistance(token, words.get(id), maxDistance);
+                if (distance <= maxDistance) candidates.add(new int[]{id, distance});
+            }
+        }
+        candidates.sort((a, b) -> Integer.compare(a[1], b[1]));
+        return candidates;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions),
+     * giving up with max + 1 as soon as the distance must exceed max.
+     */
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+}
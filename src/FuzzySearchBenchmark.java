@@ -0,0 +1,66 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Typo-tolerant search benchmark: misspelled queries through the whole
+ * ProductCatalog.query path (fuzzy lookup, facets and sort), on synthetic names
+ * with a 20k-word brand vocabulary so the index isn't unrealistically small.
+ *
+ *   java FuzzySearchBenchmark [products ...]   (default 100000 1000000)
+ *
+ * Not JMH, since the project has no build to run it from: each query is warmed up,
+ * then timed over RUNS runs and averaged. Every query must come back as close matches.
+ */
+public class FuzzySearchBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 20;
+
+    private static final String[] ADJECTIVES = {"wireless", "classic", "slim", "sport", "organic", "smart",
+            "leather", "cotton", "running", "digital", "vintage", "premium", "compact", "ergonomic", "waterproof"};
+    private static final String[] NOUNS = {"headphones", "sneakers", "watch", "shirt", "dress", "vitamins",
+            "laptop", "jacket", "bottle", "speaker", "backpack", "keyboard", "sandals", "blender", "charger"};
+    private static final String[] CATEGORIES = {"Mens", "Womens", "Shoes", "Electronics", "Health"};
+
+    private static final String[] QUERIES = {"wireles hedphones", "lether jaket", "smart wacth", "hedphones", "snekers"};
+
+    public static void main(String[] args) {
+        // Every run has to do the work; the catalog's query cache would answer repeats
+        System.setProperty("shopeasy.search.cacheBytes", "0");
+        int[] sizes = args.length == 0 ? new int[]{100_000, 1_000_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+
+        for (int size : sizes) {
+            List<Product> products = new ArrayList<>(size);
+            Random random = new Random(2);
+            for (int i = 0; i < size; i++) {
+                String name = "Brand" + Integer.toString(random.nextInt(20_000), 36) + " "
+                        + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+                products.add(new Product(i, name, random.nextInt(1000), "", CATEGORIES[random.nextInt(CATEGORIES.length)]));
+            }
+
+            long start = System.nanoTime();
+            ProductCatalog catalog = new ProductCatalog();
+            catalog.putAll(products);
+            System.out.printf("%,d products, catalog built in %.0f ms%n", size, (System.nanoTime() - start) / 1e6);
+
+            for (String query : QUERIES) {
+                ProductCatalog.QueryResult result = query(catalog, query);
+                if (!result.isFuzzy() || result.getProducts().isEmpty()) {
+                    throw new IllegalStateException("\"" + query + "\" found no close matches");
+                }
+                for (int i = 0; i < WARMUP_RUNS; i++) query(catalog, query);
+                start = System.nanoTime();
+                for (int i = 0; i < RUNS; i++) query(catalog, query);
+                double ms = (System.nanoTime() - start) / 1e6 / RUNS;
+                System.out.printf("  %-20s %,9d close matches   %6.2f ms   best: %s%n",
+                        "\"" + query + "\"", result.getProducts().size(), ms, result.getProducts().get(0).getName());
+            }
+        }
+    }
+
+    private static ProductCatalog.QueryResult query(ProductCatalog catalog, String text) {
+        return catalog.query(text, "All", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, ProductCatalog.SortKey.ID, false);
+    }
+}
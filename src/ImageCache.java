@@ -0,0 +1,539 @@
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Shared cache of product images, scaled to the square sizes the UI shows them at.
+ *
+ * Two tiers:
+ *   - memory: an LRU of decoded, scaled images keyed by (url, size), capped at
+ *     shopeasy.images.memoryBytes (default 64 MB). Entries evicted from it are kept
+ *     behind soft references, so the GC can take them back under pressure but an
+ *     image scrolled away a moment ago usually doesn't need decoding again.
+ *   - disk: the downloaded originals of http(s) images, under
+ *     shopeasy.images.diskDir (default ~/.shopeasy/image-cache), so a restart doesn't
+ *     download them again. The directory is kept within shopeasy.images.diskBytes
+ *     (default 256 MB), least recently used first: it is trimmed at startup, and again
+ *     on a background thread whenever downloads push a running byte count past the
+ *     budget. A trim goes down to 90% of the budget, so the next few downloads don't
+ *     set off another.
+ *
+ * Loads run on LOADER_THREADS threads, taken from a priority queue rather than in
+ * arrival order. A request carries a priority, lower first; the grid uses the cell's
+ * distance in pixels from the viewport and updates it as the user scrolls, so visible
+ * rows load before the ones that were requested earlier but have scrolled away.
+ * Concurrent requests for the same (url, size) share one load, queued at the most
+ * urgent of their priorities. A load nobody wants any more (every request for it
+ * cancelled) is taken off the queue before it starts.
+ *
+ * Hit counts per tier and queued, running and cancelled loads are exposed over JMX as
+ * "shopeasy:type=ImageCache".
+ */
+public class ImageCache implements ImageCacheMBean {
+
+    private static final ImageCache INSTANCE = new ImageCache(
+        Long.getLong("shopeasy.images.memoryBytes", 64L * 1024 * 1024),
+        Paths.get(System.getProperty("shopeasy.images.diskDir",
+                  System.getProperty("user.home") + File.separator + ".shopeasy" + File.separator + "image-cache")),
+        Long.getLong("shopeasy.images.diskBytes", 256L * 1024 * 1024));
+
+    private static final int LOADER_THREADS = 4;
+
+    private final long maxMemoryBytes;
+    private final Path diskDir;
+    private final long maxDiskBytes;
+    private final AtomicLong diskBytes = new AtomicLong(); // Estimate between trims; each trim recounts it
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final ThreadPoolExecutor loader;
+
+    // Memory tier, guarded by this
+    private final LinkedHashMap<String, BufferedImage> images = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, SoftReference<BufferedImage>> evicted = new HashMap<>();
+    private long memoryBytes;
+
+    // Loads queued or running, guarded by jobLock
+    private final Object jobLock = new Object();
+    private final Map<String, LoadJob> jobs = new HashMap<>();
+    private final AtomicLong jobSequence = new AtomicLong();
+
+    // --- Metrics ---
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder softHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder downloads = new LongAdder();
+    private final LongAdder sharedLoads = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder cancelledLoads = new LongAdder();
+    private final AtomicInteger runningLoads = new AtomicInteger();
+
+    /**
+     * A caller's interest in one image. Cancel it when the image is no longer needed;
+     * the load itself is only dropped when no other request for it is left.
+     */
+    public static final class Request {
+        private final LoadJob job; // null when answered without loading
+        private final CompletableFuture<BufferedImage> future;
+        private int priority;      // guarded by the cache's jobLock
+
+        private Request(LoadJob job, CompletableFuture<BufferedImage> future, int priority) {
+            this.job = job;
+            this.future = future;
+            this.priority = priority;
+        }
+
+        /**
+         * Completes with the image, or exceptionally if it can't be read or the request was cancelled.
+         */
+        public CompletableFuture<BufferedImage> future() {
+            return future;
+        }
+
+        /**
+         * Changes how soon the image is wanted, lower first. No effect once the load has started.
+         */
+        public void setPriority(int priority) {
+            if (job != null) job.cache().reprioritize(this, priority);
+        }
+
+        /**
+         * Cancels this request's future and gives up its claim on the load.
+         */
+        public void cancel() {
+            if (future.cancel(false) && job != null) job.cache().release(this);
+        }
+    }
+
+    /**
+     * One queued or running load, shared by every request for its (url, size).
+     */
+    private final class LoadJob implements Runnable, Comparable<LoadJob> {
+        final String key;
+        final String url;
+        final int size;
+        final long sequence = jobSequence.getAndIncrement(); // FIFO among equal priorities
+        final CompletableFuture<BufferedImage> result = new CompletableFuture<>();
+        // Guarded by jobLock; priority only changes while the job is out of the queue
+        final List<Request> requests = new ArrayList<>(2);
+        int priority;
+        boolean started;
+        boolean cancelled;
+
+        LoadJob(String key, String url, int size, int priority) {
+            this.key = key;
+            this.url = url;
+            this.size = size;
+            this.priority = priority;
+        }
+
+        ImageCache cache() {
+            return ImageCache.this;
+        }
+
+        @Override
+        public void run() {
+            synchronized (jobLock) {
+                if (cancelled) return;
+                started = true;
+            }
+            runningLoads.incrementAndGet();
+            try {
+                BufferedImage image = loadAndScale(url, size);
+                synchronized (ImageCache.this) {
+                    store(key, image);
+                }
+                result.complete(image);
+            } catch (RuntimeException | Error e) {
+                // Errors too: left incomplete, every request sharing this load would wait forever
+                errors.increment();
+                result.completeExceptionally(e);
+                if (e instanceof Error) throw (Error) e;
+            } finally {
+                runningLoads.decrementAndGet();
+                synchronized (jobLock) {
+                    jobs.remove(key, this); // After storing; request() checks memory again when it finds no job
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(LoadJob other) {
+            int byPriority = Integer.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    public static ImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    ImageCache(long maxMemoryBytes, Path diskDir, long maxDiskBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.diskDir = diskDir;
+        this.maxDiskBytes = maxDiskBytes;
+        // Only LoadJobs go through this pool: the priority queue needs them to compare
+        loader = new ThreadPoolExecutor(LOADER_THREADS, LOADER_THREADS, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "image-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        loader.allowCoreThreadTimeOut(true);
+        startTrim();
+        Metrics.register("shopeasy:type=ImageCache", this);
+    }
+
+    private static String key(String url, int size) {
+        return size + ":" + url;
+    }
+
+    /**
+     * Returns the image if it is in memory, without loading anything. Call on the EDT to
+     * show a cached image straight away instead of a placeholder.
+     */
+    public synchronized BufferedImage getIfPresent(String url, int size) {
+        String key = key(url, size);
+        BufferedImage image = images.get(key);
+        if (image != null) {
+            memoryHits.increment();
+            return image;
+        }
+        SoftReference<BufferedImage> ref = evicted.remove(key);
+        image = ref == null ? null : ref.get();
+        if (image != null) {
+            softHits.increment();
+            store(key, image); // Back into the LRU
+        }
+        return image;
+    }
+
+    /**
+     * Returns the image scaled to size x size, loading it in the background unless it is
+     * in memory. The future fails if the image can't be read. Same as request() at
+     * priority 0, for callers that always show what they asked for.
+     */
+    public CompletableFuture<BufferedImage> load(String url, int size) {
+        return request(url, size, 0).future();
+    }
+
+    /**
+     * Asks for the image scaled to size x size, loading it in the background unless it
+     * is in memory. Loads with a lower priority start first.
+     */
+    public Request request(String url, int size, int priority) {
+        if (url == null) {
+            return new Request(null, CompletableFuture.failedFuture(new IOException("Product has no image")), priority);
+        }
+        BufferedImage cached = getIfPresent(url, size);
+        if (cached != null) return new Request(null, CompletableFuture.completedFuture(cached), priority);
+
+        String key = key(url, size);
+        CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+        Request request;
+        LoadJob job;
+        synchronized (jobLock) {
+            job = jobs.get(key);
+            boolean shared = job != null;
+            if (!shared) {
+                // A load may have finished since the check above; it stored its image before leaving jobs
+                cached = getIfPresent(url, size);
+                if (cached != null) return new Request(null, CompletableFuture.completedFuture(cached), priority);
+                job = new LoadJob(key, url, size, priority);
+                jobs.put(key, job);
+            }
+            request = new Request(job, future, priority);
+            job.requests.add(request);
+            if (shared) {
+                sharedLoads.increment();
+                requeue(job);
+            } else {
+                loader.execute(job);
+            }
+        }
+        job.result.whenComplete((image, error) -> {
+            if (image != null) future.complete(image);
+            else future.completeExceptionally(error);
+        });
+        return request;
+    }
+
+    private void reprioritize(Request request, int priority) {
+        synchronized (jobLock) {
+            request.priority = priority;
+            requeue(request.job);
+        }
+    }
+
+    private void release(Request request) {
+        LoadJob job = request.job;
+        synchronized (jobLock) {
+            job.requests.remove(request);
+            if (job.started || job.cancelled) return;
+            if (job.requests.isEmpty()) {
+                job.cancelled = true;
+                loader.remove(job);
+                jobs.remove(job.key, job);
+                cancelledLoads.increment();
+                job.result.cancel(false);
+            } else {
+                requeue(job);
+            }
+        }
+    }
+
+    /**
+     * Moves a waiting job to the most urgent priority among its requests. Call with jobLock held.
+     */
+    private void requeue(LoadJob job) {
+        if (job.started || job.cancelled) return;
+        int best = Integer.MAX_VALUE;
+        for (Request r : job.requests) best = Math.min(best, r.priority);
+        // A job missing from the queue was just taken by a loader thread; leave it be
+        if (best != job.priority && loader.remove(job)) {
+            job.priority = best;
+            loader.execute(job);
+        }
+    }
+
+    private BufferedImage loadAndScale(String url, int size) {
+        try {
+            return decodeScaled(readOriginal(url), size);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not load image " + url, e);
+        }
+    }
+
+    /**
+     * Decodes an image straight to size x size. The reader skips source pixels so the
+     * decoded image is only about twice the target size (a 1600x1200 photo for a 220px
+     * thumbnail decodes at 533x400), which saves most of the decode time and memory.
+     * Bilinear steps of at most half each then finish the job: skipping pixels alone
+     * would alias, and one big bilinear step would too, but halving stays smooth.
+     */
+    static BufferedImage decodeScaled(byte[] bytes, int size) throws IOException {
+        BufferedImage decoded;
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int xStep = Math.max(1, reader.getWidth(0) / (2 * size));
+                int yStep = Math.max(1, reader.getHeight(0) / (2 * size));
+                param.setSourceSubsampling(xStep, yStep, 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        int transparency = decoded.getColorModel().getTransparency();
+        BufferedImage current = decoded;
+        int width = decoded.getWidth();
+        int height = decoded.getHeight();
+        do {
+            width = Math.max(size, width / 2);
+            height = Math.max(size, height / 2);
+            BufferedImage step = width == size && height == size
+                    ? compatibleImage(size, transparency)
+                    : new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                            ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = step;
+        } while (width != size || height != size);
+        return current;
+    }
+
+    /**
+     * An image in the screen's own pixel format, so painting it is a straight copy.
+     */
+    private static BufferedImage compatibleImage(int size, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(size, size, transparency == Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(size, size, transparency);
+    }
+
+    /**
+     * Returns the original image bytes, from the disk cache for http(s) URLs when possible.
+     */
+    private byte[] readOriginal(String url) throws IOException {
+        boolean remote = url.startsWith("http://") || url.startsWith("https://");
+        if (!remote) {
+            try (InputStream in = new URL(url).openStream()) {
+                return in.readAllBytes();
+            }
+        }
+
+        Path file = diskDir.resolve(sha256(url));
+        if (Files.exists(file)) {
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                file.toFile().setLastModified(System.currentTimeMillis()); // Keeps it through the next trim
+                diskHits.increment();
+                return bytes;
+            } catch (IOException e) {
+                // Unreadable cache file; download it again
+            }
+        }
+
+        byte[] bytes;
+        try (InputStream in = new URL(url).openStream()) {
+            bytes = in.readAllBytes();
+        }
+        downloads.increment();
+        try {
+            Files.createDirectories(diskDir);
+            Path temp = Files.createTempFile(diskDir, "download", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(bytes.length) > maxDiskBytes) startTrim();
+        } catch (IOException e) {
+            System.err.println("Could not write image cache file: " + e.getMessage());
+        }
+        return bytes;
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not hash image URL", e);
+        }
+    }
+
+    /**
+     * Adds an image to the memory LRU, moving the least recently used ones behind soft references.
+     */
+    private void store(String key, BufferedImage image) {
+        BufferedImage previous = images.put(key, image);
+        if (previous != null) memoryBytes -= bytesOf(previous);
+        memoryBytes += bytesOf(image);
+
+        Iterator<Map.Entry<String, BufferedImage>> eldest = images.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            Map.Entry<String, BufferedImage> entry = eldest.next();
+            if (entry.getValue() == image) break; // Never evict what was just added
+            memoryBytes -= bytesOf(entry.getValue());
+            evicted.put(entry.getKey(), new SoftReference<>(entry.getValue()));
+            eldest.remove();
+        }
+        evicted.values().removeIf(ref -> ref.get() == null);
+    }
+
+    private static long bytesOf(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Trims the disk cache on a background thread, unless a trim is already running.
+     */
+    private void startTrim() {
+        if (!trimming.compareAndSet(false, true)) return;
+        Thread trim = new Thread(() -> {
+            try {
+                trimDiskCache();
+            } finally {
+                trimming.set(false);
+            }
+        }, "image-cache-trim");
+        trim.setDaemon(true);
+        trim.start();
+    }
+
+    /**
+     * Deletes the least recently used originals until the disk cache is down to 90% of
+     * its budget, if it is over the budget at all, and recounts its size.
+     */
+    private void trimDiskCache() {
+        if (!Files.isDirectory(diskDir)) return;
+        List<File> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(diskDir)) {
+            paths.forEach(p -> files.add(p.toFile()));
+        } catch (IOException e) {
+            System.err.println("Could not list the image cache: " + e.getMessage());
+            return;
+        }
+        long total = 0;
+        for (File file : files) total += file.length();
+        if (total > maxDiskBytes) {
+            long target = maxDiskBytes / 10 * 9;
+            files.sort(Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                if (total <= target) break;
+                long length = file.length();
+                if (file.delete()) total -= length;
+            }
+        }
+        diskBytes.set(total); // Downloads finished during the listing may be missed until the next trim
+    }
+
+    // --- Metrics getters ---
+    @Override public long getMemoryHits() { return memoryHits.sum(); }
+    @Override public long getSoftReferenceHits() { return softHits.sum(); }
+    @Override public long getDiskHits() { return diskHits.sum(); }
+    @Override public long getDownloads() { return downloads.sum(); }
+    @Override public long getSharedLoads() { return sharedLoads.sum(); }
+    @Override public long getErrors() { return errors.sum(); }
+    @Override public synchronized int getMemoryEntries() { return images.size(); }
+    @Override public synchronized long getMemoryBytes() { return memoryBytes; }
+    @Override public long getMaxMemoryBytes() { return maxMemoryBytes; }
+    @Override public int getQueuedLoads() { return loader.getQueue().size(); }
+    @Override public int getRunningLoads() { return runningLoads.get(); }
+    @Override public long getCancelledLoads() { return cancelledLoads.sum(); }
+    @Override public long getDiskBytes() { return diskBytes.get(); }
+    @Override public long getMaxDiskBytes() { return maxDiskBytes; }
+
+    @Override
+    public String toString() {
+        return String.format("ImageCache[entries=%d, bytes=%d/%d, memoryHits=%d, softHits=%d, diskHits=%d, downloads=%d, shared=%d, errors=%d, queued=%d, running=%d, cancelled=%d]",
+                getMemoryEntries(), getMemoryBytes(), maxMemoryBytes, getMemoryHits(), getSoftReferenceHits(),
+                getDiskHits(), getDownloads(), getSharedLoads(), getErrors(),
+                getQueuedLoads(), getRunningLoads(), getCancelledLoads());
+    }
+}
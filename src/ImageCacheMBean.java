@@ -0,0 +1,19 @@
+/**
+ * JMX view of the product image cache (see ImageCache).
+ */
+public interface ImageCacheMBean {
+    long getMemoryHits();
+    long getSoftReferenceHits();
+    long getDiskHits();
+    long getDownloads();
+    long getSharedLoads();
+    long getErrors();
+    int getMemoryEntries();
+    long getMemoryBytes();
+    long getMaxMemoryBytes();
+    int getQueuedLoads();
+    int getRunningLoads();
+    long getCancelledLoads();
+    long getDiskBytes();
+    long getMaxDiskBytes();
+}
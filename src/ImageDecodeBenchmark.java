@@ -0,0 +1,139 @@
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Random;
+
+/**
+ * Thumbnail pipeline benchmark: the old path (full decode, then
+ * getScaledInstance(SCALE_SMOOTH)) against ImageCache.decodeScaled (subsampled decode,
+ * then bilinear halving), on synthetic product photos at the grid (220px) and cart
+ * (60px) sizes.
+ *
+ *   java -Djava.awt.headless=true ImageDecodeBenchmark
+ *
+ * Not JMH, since the project has no build to run it from: each case is warmed up,
+ * then timed over RUNS runs and averaged. Reports time and bytes allocated per
+ * thumbnail, the peak heap growth over a single thumbnail, and the mean per-channel
+ * difference between the two outputs (0-255).
+ */
+public class ImageDecodeBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 20;
+    private static final int[][] PHOTO_SIZES = {{800, 800}, {1600, 1200}, {3000, 2000}, {4032, 3024}};
+    private static final int[] THUMBNAIL_SIZES = {220, 60};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private interface Pipeline {
+        BufferedImage thumbnail(byte[] bytes, int size) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("photo           thumb   old ms   new ms   old MB/op  new MB/op   old peak MB  new peak MB   diff");
+        for (int[] photo : PHOTO_SIZES) {
+            byte[] jpeg = photo(photo[0], photo[1], "jpg");
+            for (int size : THUMBNAIL_SIZES) {
+                report(photo[0] + "x" + photo[1] + " jpg", jpeg, size);
+            }
+        }
+        report("1200x1200 png", photo(1200, 1200, "png"), 220);
+    }
+
+    private static void report(String label, byte[] bytes, int size) throws Exception {
+        double[] old = measure(ImageDecodeBenchmark::oldThumbnail, bytes, size);
+        double[] current = measure(ImageCache::decodeScaled, bytes, size);
+        double diff = meanDifference(oldThumbnail(bytes, size), ImageCache.decodeScaled(bytes, size));
+        System.out.printf("%-15s %5d %8.1f %8.1f %11.1f %10.1f %13.1f %12.1f %6.2f%n",
+                label, size, old[0], current[0], old[1], current[1], old[2], current[2], diff);
+    }
+
+    /**
+     * What ImageCache did before: decode everything, then let AWT scale it.
+     */
+    private static BufferedImage oldThumbnail(byte[] bytes, int size) throws IOException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(bytes));
+        Image scaled = original.getScaledInstance(size, size, Image.SCALE_SMOOTH);
+        BufferedImage result = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = result.createGraphics();
+        g.drawImage(scaled, 0, 0, null);
+        g.dispose();
+        return result;
+    }
+
+    /**
+     * Returns {ms per thumbnail, MB allocated per thumbnail, peak heap growth in MB for one thumbnail}.
+     */
+    private static double[] measure(Pipeline pipeline, byte[] bytes, int size) throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) pipeline.thumbnail(bytes, size);
+
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) pipeline.thumbnail(bytes, size);
+        double ms = (System.nanoTime() - start) / 1e6 / RUNS;
+        double mbPerOp = (THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore) / 1048576.0 / RUNS;
+
+        System.gc();
+        Thread.sleep(50);
+        long heapBefore = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) continue;
+            pool.resetPeakUsage();
+            heapBefore += pool.getUsage().getUsed();
+        }
+        pipeline.thumbnail(bytes, size);
+        long heapPeak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) heapPeak += pool.getPeakUsage().getUsed();
+        }
+        return new double[]{ms, mbPerOp, Math.max(0, heapPeak - heapBefore) / 1048576.0};
+    }
+
+    /**
+     * A product-shot stand-in: a gradient backdrop with shapes and text, so the encoder
+     * has edges and detail to deal with rather than flat color.
+     */
+    private static byte[] photo(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(240, 230, 220), width, height, new Color(60, 80, 120)));
+        g.fillRect(0, 0, width, height);
+        Random random = new Random(1);
+        for (int i = 0; i < 400; i++) {
+            g.setColor(new Color(random.nextInt(0xffffff)));
+            g.fillOval(random.nextInt(width), random.nextInt(height), 20 + random.nextInt(width / 6), 20 + random.nextInt(height / 6));
+        }
+        g.setColor(Color.BLACK);
+        g.setFont(new Font("Serif", Font.BOLD, height / 10));
+        g.drawString("ShopEasy", width / 8, height / 2);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static double meanDifference(BufferedImage a, BufferedImage b) {
+        long total = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                int p = a.getRGB(x, y);
+                int q = b.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    total += Math.abs(((p >> shift) & 0xff) - ((q >> shift) & 0xff));
+                }
+            }
+        }
+        return total / (3.0 * a.getWidth() * a.getHeight());
+    }
+}
@@ -0,0 +1,129 @@
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe, in-memory OrderRepository for running the app without a database.
+ * Each user's orders are kept sorted newest first on (order_date, id), the same
+ * key the SQL store pages on, so keyset paging is a tailSet lookup.
+ */
+public class InMemoryOrderRepository implements OrderRepository {
+
+    private static final Comparator<Order> NEWEST_FIRST =
+        Comparator.comparing(Order::getOrderDate).thenComparingInt(Order::getDbId).reversed();
+
+    private static class StoredOrder {
+        final int userId;
+        final Order order;
+
+        StoredOrder(int userId, Order order) {
+            this.userId = userId;
+            this.order = order;
+        }
+    }
+
+    private final ConcurrentSkipListMap<Integer, StoredOrder> ordersById = new ConcurrentSkipListMap<>();
+    private final Map<Integer, NavigableSet<Order>> ordersByUser = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsByOrderString = new ConcurrentHashMap<>(); // Plays the UNIQUE order_id_string constraint
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    @Override
+    public boolean saveOrder(User user, Order order) {
+        int dbId = nextId.getAndIncrement();
+        if (idsByOrderString.putIfAbsent(order.getOrderId(), dbId) != null) {
+            System.err.println("Duplicate order id " + order.getOrderId() + ", order not saved.");
+            return false;
+        }
+        Order stored = new Order(dbId, order.getOrderId(), order.getOrderDate(), order.getTotalAmount(),
+                                 Collections.unmodifiableList(new ArrayList<>(order.getItems())));
+        ordersById.put(dbId, new StoredOrder(user.getId(), stored));
+        ordersByUser.computeIfAbsent(user.getId(), id -> new ConcurrentSkipListSet<>(NEWEST_FIRST)).add(stored);
+        return true;
+    }
+
+    @Override
+    public synchronized void saveOrderBatch(List<OrderWriter.PendingOrder> batch) throws SQLException {
+        // All-or-nothing, like the SQL transaction: check every order before storing any
+        for (OrderWriter.PendingOrder pending : batch) {
+            if (idsByOrderString.containsKey(pending.getOrder().getOrderId())) {
+                throw new SQLException("Duplicate order id " + pending.getOrder().getOrderId());
+            }
+        }
+        for (OrderWriter.PendingOrder pending : batch) {
+            saveOrder(pending.getUser(), pending.getOrder());
+        }
+    }
+
+    @Override
+    public List<Order> getOrderHistory(User user) {
+        NavigableSet<Order> orders = ordersByUser.get(user.getId());
+        return orders == null ? new ArrayList<>() : new ArrayList<>(orders);
+    }
+
+    @Override
+    public List<Order> getOrderHistoryPage(User user, LocalDateTime afterOrderDate, int afterId, int limit) {
+        List<Order> page = new ArrayList<>();
+        NavigableSet<Order> orders = ordersByUser.get(user.getId());
+        if (orders == null) return page;
+
+        NavigableSet<Order> remaining = afterOrderDate == null ? orders
+            : orders.tailSet(new Order(afterId, "", afterOrderDate, 0, Collections.emptyList()), false);
+        for (Order order : remaining) {
+            if (page.size() == limit) break;
+            page.add(order);
+        }
+        return page;
+    }
+
+    @Override
+    public OrderSummary getOrderSummary(User user) {
+        NavigableSet<Order> orders = ordersByUser.get(user.getId());
+        if (orders == null || orders.isEmpty()) {
+            return new OrderSummary(0, 0.0, null);
+        }
+        int count = 0;
+        double total = 0;
+        for (Order order : orders) {
+            count++;
+            total += order.getTotalAmount();
+        }
+        return new OrderSummary(count, total, orders.first().getOrderDate());
+    }
+
+    @Override
+    public int[] getExpiredOrderIdRange(LocalDateTime cutoff) {
+        int min = -1;
+        int max = -1;
+        for (Map.Entry<Integer, StoredOrder> entry : ordersById.entrySet()) {
+            if (entry.getValue().order.getOrderDate().isBefore(cutoff)) {
+                if (min < 0) min = entry.getKey();
+                max = entry.getKey();
+            }
+        }
+        return min < 0 ? null : new int[]{min, max};
+    }
+
+    @Override
+    public int deleteExpiredOrdersInRange(LocalDateTime cutoff, int fromId, int toId) {
+        int rows = 0;
+        for (StoredOrder stored : ordersById.subMap(fromId, true, toId, true).values()) {
+            Order order = stored.order;
+            if (!order.getOrderDate().isBefore(cutoff)) continue;
+            ordersById.remove(order.getDbId());
+            idsByOrderString.remove(order.getOrderId());
+            NavigableSet<Order> userOrders = ordersByUser.get(stored.userId);
+            if (userOrders != null) userOrders.remove(order);
+            rows += 1 + order.getItems().size();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,151 @@
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe, in-memory ProductRepository for running the app without a database.
+ * Mirrors the SQL store's behaviour: ids are assigned on insert, every write gets a
+ * change stamp, and deletions leave a tombstone so catalog sync keeps working.
+ */
+public class InMemoryProductRepository implements ProductRepository {
+
+    private static final String[] CATEGORIES = {"Mens", "Womens", "Shoes", "Electronics", "Health"};
+
+    private static class Row {
+        final Product product;
+        final boolean deleted;
+        final long changedAt;
+
+        Row(Product product, boolean deleted, long changedAt) {
+            this.product = product;
+            this.deleted = deleted;
+            this.changedAt = changedAt;
+        }
+    }
+
+    private final ConcurrentSkipListMap<Integer, Row> rows = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final AtomicLong lastStamp = new AtomicLong();
+
+    /**
+     * Creates a store holding the README's sample products plus generatedProducts synthetic ones,
+     * which is handy for load-testing the catalog UI.
+     */
+    public InMemoryProductRepository(int generatedProducts) {
+        addProduct(new Product(0, "T-Shirt", 19.99, "images/tshirt.jpg", "Mens"));
+        addProduct(new Product(0, "Dress", 49.99, "images/dress.jpg", "Womens"));
+        addProduct(new Product(0, "Sneakers", 79.99, "images/sneakers.jpg", "Shoes"));
+        addProduct(new Product(0, "Laptop", 999.99, "images/laptop.jpg", "Electronics"));
+        addProduct(new Product(0, "Vitamins", 29.99, "images/vitamins.jpg", "Health"));
+        for (int i = 1; i <= generatedProducts; i++) {
+            String category = CATEGORIES[i % CATEGORIES.length];
+            double price = 10 + (i * 37 % 5000) + (i % 100) / 100.0;
+            addProduct(new Product(0, category + " Item " + i, price, "images/item" + i + ".jpg", category));
+        }
+    }
+
+    /**
+     * Returns a strictly increasing millisecond stamp, so two writes never share a change stamp.
+     */
+    private long nextStamp() {
+        return lastStamp.accumulateAndGet(System.currentTimeMillis(), (last, now) -> Math.max(last + 1, now));
+    }
+
+    @Override
+    public boolean streamProducts(int chunkSize, Consumer<List<Product>> chunkConsumer) {
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        for (Row row : rows.values()) {
+            if (row.deleted) continue;
+            chunk.add(row.product);
+            if (chunk.size() == chunkSize) {
+                chunkConsumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
+        return true;
+    }
+
+    /**
+     * Scans every row, so it only stands in for the SQL store's indexed query.
+     */
+    @Override
+    public List<Product> getProductsPage(ProductQuery query, Product after, int limit) {
+        Comparator<Product> order = query.comparator();
+        List<Product> matching = new ArrayList<>();
+        for (Row row : rows.values()) {
+            if (row.deleted || !query.matches(row.product)) continue;
+            if (after != null && order.compare(row.product, after) <= 0) continue;
+            matching.add(row.product);
+        }
+        matching.sort(order);
+        return new ArrayList<>(matching.subList(0, Math.min(limit, matching.size())));
+    }
+
+    @Override
+    public ProductSummary getProductSummary(ProductQuery query) {
+        int count = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Row row : rows.values()) {
+            if (row.deleted || !query.matches(row.product)) continue;
+            count++;
+            min = Math.min(min, row.product.getPrice());
+            max = Math.max(max, row.product.getPrice());
+        }
+        return count == 0 ? new ProductSummary(0, 0, 0) : new ProductSummary(count, min, max);
+    }
+
+    @Override
+    public boolean addProduct(Product product) {
+        int id = nextId.getAndIncrement();
+        Product stored = new Product(id, product.getName(), product.getPrice(), product.getImagePath(),
+                ProductQuery.normalizeCategory(product.getCategory()));
+        rows.put(id, new Row(stored, false, nextStamp()));
+        return true;
+    }
+
+    @Override
+    public boolean deleteProduct(int productId) {
+        Row row = rows.get(productId);
+        if (row == null || row.deleted) return false;
+        return rows.replace(productId, row, new Row(row.product, true, nextStamp()));
+    }
+
+    @Override
+    public Timestamp getCatalogSyncToken() {
+        return new Timestamp(lastStamp.get());
+    }
+
+    @Override
+    public CatalogDelta getProductChangesSince(Timestamp syncToken) {
+        long since = syncToken.getTime();
+        List<Row> changedRows = new ArrayList<>();
+        for (Row row : rows.values()) {
+            if (row.changedAt >= since) {
+                changedRows.add(row);
+            }
+        }
+        changedRows.sort(Comparator.comparingLong(r -> r.changedAt));
+
+        List<Product> changed = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        long newToken = since;
+        for (Row row : changedRows) {
+            if (row.deleted) {
+                deleted.add(row.product.getId());
+            } else {
+                changed.add(row.product);
+            }
+            newToken = row.changedAt;
+        }
+        return new CatalogDelta(changed, deleted, new Timestamp(newToken));
+    }
+}
@@ -0,0 +1,30 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe, in-memory UserRepository for running the app without a database.
+ */
+public class InMemoryUserRepository implements UserRepository {
+
+    private final ConcurrentHashMap<String, User> usersByName = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    @Override
+    public boolean registerUser(String username, String password) {
+        if (usersByName.containsKey(username)) return false;
+        String salt = DBManager.generateSalt();
+        String hash = DBManager.hashPassword(password, salt);
+        User user = new User(nextId.getAndIncrement(), username, salt, hash);
+        return usersByName.putIfAbsent(username, user) == null;
+    }
+
+    @Override
+    public User authenticateUser(String username, String password) {
+        User stored = usersByName.get(username);
+        if (stored == null || !stored.checkPassword(password)) {
+            return null;
+        }
+        // Hand out a fresh User each login, like the SQL store does, so carts aren't shared between sessions
+        return new User(stored.getId(), username, stored.getSalt(), stored.getHashedPassword());
+    }
+}
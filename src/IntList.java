@@ -0,0 +1,48 @@
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints, used for posting lists and ordinal sets
+ * so the catalog indexes don't box every entry.
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int initialCapacity) {
+        values = new int[Math.max(1, initialCapacity)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns a trimmed copy of the contents.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
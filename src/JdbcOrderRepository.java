@@ -0,0 +1,399 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OrderRepository backed by a SQL database (MySQL or the embedded H2 store).
+ */
+public class JdbcOrderRepository implements OrderRepository {
+
+    private final ConnectionPool pool;
+
+    public JdbcOrderRepository(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Saves a completed order to the database. This is a transaction.
+     * The order's id string is assigned up front by OrderIdGenerator, so the items
+     * find their parent row by order_id_string instead of waiting on generated keys.
+     * @return true if the save was successful.
+     */
+    @Override
+    public boolean saveOrder(User user, Order order) {
+        long start = System.nanoTime();
+        String insertOrderSql = "INSERT INTO orders (user_id, order_date, total_price, order_id_string) VALUES (?, ?, ?, ?);";
+        String insertItemSql = "INSERT INTO order_items (order_id, product_id, quantity, price_per_item) " +
+                               "SELECT id, ?, ?, ? FROM orders WHERE order_id_string = ?;";
+        
+        Connection conn = null;
+        try {
+            conn = pool.getConnection();
+            conn.setAutoCommit(false); 
+            
+            try (PreparedStatement orderStmt = conn.prepareStatement(insertOrderSql)) {
+                orderStmt.setInt(1, user.getId()); 
+                orderStmt.setTimestamp(2, java.sql.Timestamp.valueOf(order.getOrderDate()));
+                orderStmt.setDouble(3, order.getTotalAmount());
+                orderStmt.setString(4, order.getOrderId());
+                
+                if (orderStmt.executeUpdate() != 1) {
+                    throw new SQLException("Order " + order.getOrderId() + " was not inserted");
+                }
+            }
+            
+            try (PreparedStatement itemStmt = conn.prepareStatement(insertItemSql)) {
+                for (OrderItem item : order.getItems()) {
+                    itemStmt.setInt(1, item.getProductId()); 
+                    itemStmt.setInt(2, item.getQuantity());
+                    itemStmt.setDouble(3, item.getPrice());
+                    itemStmt.setString(4, order.getOrderId());
+                    itemStmt.addBatch(); 
+                }
+                // INSERT ... SELECT inserts nothing, without an error, if it can't find the order row.
+                // SUCCESS_NO_INFO only comes from drivers that rewrite the batch into one statement.
+                for (int count : itemStmt.executeBatch()) {
+                    if (count != 1 && count != Statement.SUCCESS_NO_INFO) {
+                        throw new SQLException("An item of order " + order.getOrderId() + " was not inserted");
+                    }
+                }
+            }
+            
+            conn.commit(); 
+            DbMetrics.SAVE_ORDER.record(start, 1 + order.getItems().size());
+            return true;
+
+        } catch (SQLException e) {
+            DbMetrics.SAVE_ORDER.recordError(start);
+            System.err.println("Transaction failed. Rolling back changes.");
+            e.printStackTrace();
+            try {
+                if (conn != null) conn.rollback(); 
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+            return false;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true); 
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of orders in a single transaction: one multi-row INSERT into orders,
+     * one lookup of the generated ids by order_id_string, one multi-row INSERT into
+     * order_items, and one commit. Any failure rolls back the whole batch.
+     */
+    @Override
+    public void saveOrderBatch(List<OrderWriter.PendingOrder> batch) throws SQLException {
+        if (batch.isEmpty()) return;
+
+        StringBuilder insertOrders = new StringBuilder("INSERT INTO orders (user_id, order_date, total_price, order_id_string) VALUES ");
+        StringBuilder selectIds = new StringBuilder("SELECT id, order_id_string FROM orders WHERE order_id_string IN (");
+        int itemCount = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            insertOrders.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            selectIds.append(i == 0 ? "?" : ", ?");
+            itemCount += batch.get(i).getOrder().getItems().size();
+        }
+        selectIds.append(")");
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(insertOrders.toString())) {
+                    int p = 1;
+                    for (OrderWriter.PendingOrder pending : batch) {
+                        Order order = pending.getOrder();
+                        stmt.setInt(p++, pending.getUser().getId());
+                        stmt.setTimestamp(p++, Timestamp.valueOf(order.getOrderDate()));
+                        stmt.setDouble(p++, order.getTotalAmount());
+                        stmt.setString(p++, order.getOrderId());
+                    }
+                    if (stmt.executeUpdate() != batch.size()) {
+                        throw new SQLException("Not every order of the batch was inserted");
+                    }
+                }
+
+                Map<String, Integer> dbIds = new HashMap<>();
+                try (PreparedStatement stmt = conn.prepareStatement(selectIds.toString())) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        stmt.setString(i + 1, batch.get(i).getOrder().getOrderId());
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            dbIds.put(rs.getString(2), rs.getInt(1));
+                        }
+                    }
+                }
+
+                if (itemCount > 0) {
+                    StringBuilder insertItems = new StringBuilder("INSERT INTO order_items (order_id, product_id, quantity, price_per_item) VALUES ");
+                    for (int i = 0; i < itemCount; i++) {
+                        insertItems.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+                    }
+                    try (PreparedStatement stmt = conn.prepareStatement(insertItems.toString())) {
+                        int p = 1;
+                        for (OrderWriter.PendingOrder pending : batch) {
+                            Integer dbOrderId = dbIds.get(pending.getOrder().getOrderId());
+                            if (dbOrderId == null) {
+                                throw new SQLException("Creating order failed, no ID obtained for " + pending.getOrder().getOrderId());
+                            }
+                            for (OrderItem item : pending.getOrder().getItems()) {
+                                stmt.setInt(p++, dbOrderId);
+                                stmt.setInt(p++, item.getProductId());
+                                stmt.setInt(p++, item.getQuantity());
+                                stmt.setDouble(p++, item.getPrice());
+                            }
+                        }
+                        if (stmt.executeUpdate() != itemCount) {
+                            throw new SQLException("Not every item of the batch was inserted");
+                        }
+                    }
+                }
+
+                conn.commit();
+                DbMetrics.SAVE_ORDER_BATCH.record(start, batch.size() + itemCount);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            DbMetrics.SAVE_ORDER_BATCH.recordError(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Loads all order history for a given user from the database.
+     * Orders and their items come back from a single JOIN, so the cost is one
+     * round trip no matter how many orders the user has.
+     */
+    @Override
+    public List<Order> getOrderHistory(User user) {
+        long start = System.nanoTime();
+        String sql = "SELECT o.id, o.order_id_string, o.order_date, o.total_price, " +
+                     "oi.product_id, oi.quantity, oi.price_per_item, p.name " +
+                     "FROM orders o " +
+                     "LEFT JOIN (order_items oi JOIN products p ON oi.product_id = p.id) ON oi.order_id = o.id " +
+                     "WHERE o.user_id = ? " +
+                     "ORDER BY o.order_date DESC, o.id DESC;";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, user.getId());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Order> orders = readOrdersWithItems(rs);
+                DbMetrics.GET_ORDER_HISTORY.record(start, orders.size());
+                return orders;
+            }
+        } catch (SQLException e) {
+            DbMetrics.GET_ORDER_HISTORY.recordError(start);
+            System.err.println("Error loading order history:");
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Loads one page of a user's order history, newest first.
+     * Uses keyset pagination on (order_date, id): pass null/0 for the first page,
+     * then the date and database id of the last order already shown.
+     *
+     * @param limit maximum number of orders in the page.
+     */
+    @Override
+    public List<Order> getOrderHistoryPage(User user, LocalDateTime afterOrderDate, int afterId, int limit) {
+        long start = System.nanoTime();
+        String keysetFilter = afterOrderDate == null ? "" :
+                              "AND (order_date < ? OR (order_date = ? AND id < ?)) ";
+        String sql = "SELECT o.id, o.order_id_string, o.order_date, o.total_price, " +
+                     "oi.product_id, oi.quantity, oi.price_per_item, p.name " +
+                     "FROM (SELECT id, order_id_string, order_date, total_price FROM orders " +
+                     "      WHERE user_id = ? " + keysetFilter +
+                     "      ORDER BY order_date DESC, id DESC LIMIT ?) o " +
+                     "LEFT JOIN (order_items oi JOIN products p ON oi.product_id = p.id) ON oi.order_id = o.id " +
+                     "ORDER BY o.order_date DESC, o.id DESC;";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            stmt.setInt(i++, user.getId());
+            if (afterOrderDate != null) {
+                Timestamp after = Timestamp.valueOf(afterOrderDate);
+                stmt.setTimestamp(i++, after);
+                stmt.setTimestamp(i++, after);
+                stmt.setInt(i++, afterId);
+            }
+            stmt.setInt(i, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Order> page = readOrdersWithItems(rs);
+                DbMetrics.GET_ORDER_HISTORY_PAGE.record(start, page.size());
+                return page;
+            }
+        } catch (SQLException e) {
+            DbMetrics.GET_ORDER_HISTORY_PAGE.recordError(start);
+            System.err.println("Error loading order history page:");
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Computes order count, total spent and latest order date for a user in one aggregate query.
+     */
+    @Override
+    public OrderSummary getOrderSummary(User user) {
+        long start = System.nanoTime();
+        String sql = "SELECT COUNT(*), COALESCE(SUM(total_price), 0), MAX(order_date) FROM orders WHERE user_id = ?;";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, user.getId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                boolean found = rs.next();
+                DbMetrics.GET_ORDER_SUMMARY.record(start, found ? 1 : 0);
+                if (found) {
+                    Timestamp last = rs.getTimestamp(3);
+                    return new OrderSummary(rs.getInt(1), rs.getDouble(2), last == null ? null : last.toLocalDateTime());
+                }
+            }
+        } catch (SQLException e) {
+            DbMetrics.GET_ORDER_SUMMARY.recordError(start);
+            System.err.println("Error loading order summary:");
+            e.printStackTrace();
+        }
+        return new OrderSummary(0, 0.0, null);
+    }
+
+    /**
+     * Assembles Order/OrderItem graphs in one forward pass over a joined result set.
+     * Rows must be grouped by order (the ORDER BY above guarantees that); an order
+     * with no items shows up as a single row with a NULL product_id.
+     */
+    private List<Order> readOrdersWithItems(ResultSet rs) throws SQLException {
+        List<Order> orders = new ArrayList<>();
+        int currentOrderId = -1;
+        List<OrderItem> currentItems = null;
+
+        while (rs.next()) {
+            int dbOrderId = rs.getInt("id");
+            if (currentItems == null || dbOrderId != currentOrderId) {
+                currentOrderId = dbOrderId;
+                currentItems = new ArrayList<>();
+                orders.add(new Order(
+                    dbOrderId,
+                    rs.getString("order_id_string"),
+                    rs.getTimestamp("order_date").toLocalDateTime(),
+                    rs.getDouble("total_price"),
+                    currentItems
+                ));
+            }
+
+            int productId = rs.getInt("product_id");
+            if (!rs.wasNull()) {
+                currentItems.add(new OrderItem(
+                    productId,
+                    rs.getString("name"),
+                    rs.getInt("quantity"),
+                    rs.getDouble("price_per_item")
+                ));
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Returns the smallest and largest id among orders placed before the cutoff,
+     * or null if there are none.
+     */
+    @Override
+    public int[] getExpiredOrderIdRange(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        String sql = "SELECT MIN(id), MAX(id) FROM orders WHERE order_date < ?;";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            try (ResultSet rs = stmt.executeQuery()) {
+                boolean found = rs.next();
+                DbMetrics.GET_EXPIRED_ORDER_RANGE.record(start, found ? 1 : 0);
+                if (found) {
+                    int minId = rs.getInt(1);
+                    if (!rs.wasNull()) {
+                        return new int[]{minId, rs.getInt(2)};
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            DbMetrics.GET_EXPIRED_ORDER_RANGE.recordError(start);
+            System.err.println("Error finding old orders:");
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Deletes expired orders whose id falls in [fromId, toId], together with their
+     * order_items rows, in one transaction.
+     * @return the number of rows deleted from both tables, or -1 on a database error.
+     */
+    @Override
+    public int deleteExpiredOrdersInRange(LocalDateTime cutoff, int fromId, int toId) {
+        long start = System.nanoTime();
+        String deleteItemsSql = "DELETE FROM order_items WHERE order_id IN " +
+                                "(SELECT id FROM orders WHERE id BETWEEN ? AND ? AND order_date < ?);";
+        String deleteOrdersSql = "DELETE FROM orders WHERE id BETWEEN ? AND ? AND order_date < ?;";
+        Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement itemsStmt = conn.prepareStatement(deleteItemsSql);
+                 PreparedStatement ordersStmt = conn.prepareStatement(deleteOrdersSql)) {
+
+                itemsStmt.setInt(1, fromId);
+                itemsStmt.setInt(2, toId);
+                itemsStmt.setTimestamp(3, cutoffTs);
+                int rows = itemsStmt.executeUpdate();
+
+                ordersStmt.setInt(1, fromId);
+                ordersStmt.setInt(2, toId);
+                ordersStmt.setTimestamp(3, cutoffTs);
+                rows += ordersStmt.executeUpdate();
+
+                conn.commit();
+                DbMetrics.DELETE_EXPIRED_ORDERS.record(start, rows);
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            DbMetrics.DELETE_EXPIRED_ORDERS.recordError(start);
+            System.err.println("Error cleaning up old orders:");
+            e.printStackTrace();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.JOptionPane;
+
+/**
+ * ProductRepository backed by a SQL database (MySQL or the embedded H2 store).
+ */
+public class JdbcProductRepository implements ProductRepository {
+
+    private final ConnectionPool pool;
+    private final int fetchSize;
+
+    public JdbcProductRepository(ConnectionPool pool, int fetchSize) {
+        this.pool = pool;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Streams the catalog in id order, handing each chunk of products to the consumer
+     * as soon as it has been read. Only the columns a Product needs are selected, and
+     * the driver reads rows through a server-side cursor fetchSize rows at a
+     * time, so neither side has to hold the whole table before the first chunk arrives.
+     *
+     * @param chunkSize number of products per chunk handed to the consumer.
+     * @return true if the whole catalog was read, false if a database error stopped it.
+     */
+    @Override
+    public boolean streamProducts(int chunkSize, Consumer<List<Product>> chunkConsumer) {
+        long start = System.nanoTime();
+        long rowCount = 0;
+        String sql = "SELECT id, name, price, imagePath, category FROM products WHERE deleted = FALSE ORDER BY id;";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Product> chunk = new ArrayList<>(chunkSize);
+                while (rs.next()) {
+                    rowCount++;
+                    chunk.add(new Product(
+                        rs.getInt(1),
+                        rs.getString(2),
+                        rs.getDouble(3),
+                        rs.getString(4),
+                        rs.getString(5)
+                    ));
+                    if (chunk.size() == chunkSize) {
+                        chunkConsumer.accept(chunk);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    chunkConsumer.accept(chunk);
+                }
+            }
+            DbMetrics.STREAM_PRODUCTS.record(start, rowCount);
+            return true;
+        } catch (SQLException e) {
+            DbMetrics.STREAM_PRODUCTS.recordError(start);
+            System.err.println("Error fetching products from database:");
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Could not load product data from database.", "Database Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+    }
+
+    /**
+     * Loads one page of the products matching the query, filtered, sorted and limited
+     * by the database. Uses keyset pagination on (sort column, id), so a deep page costs
+     * the same as the first: pass null for the first page, then the last product shown.
+     * Category and price filters use idx_products_category_price. The search text is
+     * matched anywhere in the name, like the client-side catalog, which no index can
+     * answer: the database reads rows in the requested order until the page is full, so
+     * a rare or missing word reads every row in the category and price range.
+     *
+     * @return the page, or null if the database could not be read.
+     */
+    @Override
+    public List<Product> getProductsPage(ProductQuery query, Product after, int limit) {
+        long start = System.nanoTime();
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT id, name, price, imagePath, category FROM products ");
+        appendFilters(sql, params, query);
+
+        String column = sortColumn(query.getSortKey());
+        String direction = query.isDescending() ? "DESC" : "ASC";
+        if (after != null) {
+            String comparison = query.isDescending() ? " < " : " > ";
+            if (column.equals("id")) {
+                sql.append("AND id").append(comparison).append("? ");
+            } else {
+                sql.append("AND (").append(column).append(comparison).append("? OR (")
+                   .append(column).append(" = ? AND id").append(comparison).append("?)) ");
+                Object value = sortValue(query.getSortKey(), after);
+                params.add(value);
+                params.add(value);
+            }
+            params.add(after.getId());
+        }
+        sql.append("ORDER BY ");
+        if (!column.equals("id")) sql.append(column).append(' ').append(direction).append(", ");
+        sql.append("id ").append(direction).append(" LIMIT ?;");
+        params.add(limit);
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Product> page = new ArrayList<>(limit);
+                while (rs.next()) {
+                    page.add(new Product(
+                        rs.getInt(1),
+                        rs.getString(2),
+                        rs.getDouble(3),
+                        rs.getString(4),
+                        rs.getString(5)
+                    ));
+                }
+                DbMetrics.GET_PRODUCTS_PAGE.record(start, page.size());
+                return page;
+            }
+        } catch (SQLException e) {
+            DbMetrics.GET_PRODUCTS_PAGE.recordError(start);
+            System.err.println("Error loading products page:");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Counts the products matching the query and finds their price range in one aggregate query.
+     */
+    @Override
+    public ProductSummary getProductSummary(ProductQuery query) {
+        long start = System.nanoTime();
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*), COALESCE(MIN(price), 0), COALESCE(MAX(price), 0) FROM products ");
+        appendFilters(sql, params, query);
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                ProductSummary summary = new ProductSummary(rs.getInt(1), rs.getDouble(2), rs.getDouble(3));
+                DbMetrics.GET_PRODUCT_SUMMARY.record(start, 1);
+                return summary;
+            }
+        } catch (SQLException e) {
+            DbMetrics.GET_PRODUCT_SUMMARY.recordError(start);
+            System.err.println("Error counting products:");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Appends the WHERE clause for the query's filters, adding their parameters in order.
+     */
+    private void appendFilters(StringBuilder sql, List<Object> params, ProductQuery query) {
+        sql.append("WHERE deleted = FALSE ");
+        if (query.hasCategory()) {
+            // Stored trimmed (see addProduct) under a case-insensitive collation, so this
+            // matches like ProductQuery.matches while still using the index
+            sql.append("AND category = ? ");
+            params.add(query.getCategory());
+        }
+        if (query.hasMinPrice()) {
+            sql.append("AND price >= ? ");
+            params.add(BigDecimal.valueOf(query.getMinPrice()));
+        }
+        if (query.hasMaxPrice()) {
+            sql.append("AND price <= ? ");
+            params.add(BigDecimal.valueOf(query.getMaxPrice()));
+        }
+        String text = query.getSearchText();
+        if (text.isEmpty()) return;
+
+        sql.append("AND LOWER(name) LIKE ? ESCAPE '!' ");
+        params.add("%" + text.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%");
+    }
+
+    private static String sortColumn(ProductCatalog.SortKey sortKey) {
+        switch (sortKey) {
+            case PRICE: return "price";
+            case NAME: return "name";
+            default: return "id";
+        }
+    }
+
+    private static Object sortValue(ProductCatalog.SortKey sortKey, Product product) {
+        return sortKey == ProductCatalog.SortKey.PRICE ? BigDecimal.valueOf(product.getPrice()) : product.getName();
+    }
+
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Inserts a new product into the database.
+     * The product's ID is ignored as the database will auto-generate it.
+     *
+     * @param product The Product object to save.
+     * @return true if the insertion was successful, false otherwise.
+     */
+    @Override
+    public boolean addProduct(Product product) {
+        long start = System.nanoTime();
+        String sql = "INSERT INTO products (name, price, imagePath, category) VALUES (?, ?, ?, ?);";
+        
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, product.getName());
+            stmt.setDouble(2, product.getPrice());
+            stmt.setString(3, product.getImagePath());
+            stmt.setString(4, ProductQuery.normalizeCategory(product.getCategory()));
+            
+            int rowsAffected = stmt.executeUpdate();
+            DbMetrics.ADD_PRODUCT.record(start, rowsAffected);
+            
+            // executeUpdate() returns the number of rows affected. 
+            // If it's > 0, the insert was successful.
+            return rowsAffected > 0;
+            
+        } catch (SQLException e) {
+            DbMetrics.ADD_PRODUCT.recordError(start);
+            System.err.println("Error adding product to database:");
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Database error: Could not save the product.", "Database Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+    }
+
+    /**
+     * Removes a product from the catalog by tombstoning it, so clients syncing
+     * with getProductChangesSince learn about the deletion.
+     *
+     * @return true if a product was marked as deleted.
+     */
+    @Override
+    public boolean deleteProduct(int productId) {
+        long start = System.nanoTime();
+        String sql = "UPDATE products SET deleted = TRUE WHERE id = ? AND deleted = FALSE;";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, productId);
+            int rowsAffected = stmt.executeUpdate();
+            DbMetrics.DELETE_PRODUCT.record(start, rowsAffected);
+            return rowsAffected > 0;
+        } catch (SQLException e) {
+            DbMetrics.DELETE_PRODUCT.recordError(start);
+            System.err.println("Error deleting product:");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the current catalog sync token: the newest updated_at in the products table.
+     * Take it before loading the catalog, then pass it to getProductChangesSince.
+     */
+    @Override
+    public Timestamp getCatalogSyncToken() {
+        long start = System.nanoTime();
+        String sql = "SELECT MAX(updated_at) FROM products;";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            Timestamp token = rs.next() ? rs.getTimestamp(1) : null;
+            DbMetrics.GET_CATALOG_SYNC_TOKEN.record(start, 1);
+            return token != null ? token : new Timestamp(0);
+        } catch (SQLException e) {
+            DbMetrics.GET_CATALOG_SYNC_TOKEN.recordError(start);
+            System.err.println("Error reading catalog sync token:");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Returns only the product rows changed or tombstoned since the given sync token.
+     * Rows stamped exactly at the token are returned again; merging them twice is
+     * harmless and it means a write landing in the same millisecond is never missed.
+     *
+     * @return the delta, or null if the database could not be read.
+     */
+    @Override
+    public CatalogDelta getProductChangesSince(Timestamp syncToken) {
+        long start = System.nanoTime();
+        String sql = "SELECT id, name, price, imagePath, category, deleted, updated_at " +
+                     "FROM products WHERE updated_at >= ? ORDER BY updated_at, id;";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, syncToken);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Product> changed = new ArrayList<>();
+                List<Integer> deleted = new ArrayList<>();
+                Timestamp newToken = syncToken;
+
+                while (rs.next()) {
+                    if (rs.getBoolean("deleted")) {
+                        deleted.add(rs.getInt("id"));
+                    } else {
+                        changed.add(new Product(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getDouble("price"),
+                            rs.getString("imagePath"),
+                            rs.getString("category")
+                        ));
+                    }
+                    newToken = rs.getTimestamp("updated_at");
+                }
+                DbMetrics.GET_PRODUCT_CHANGES.record(start, changed.size() + deleted.size());
+                return new CatalogDelta(changed, deleted, newToken);
+            }
+        } catch (SQLException e) {
+            DbMetrics.GET_PRODUCT_CHANGES.recordError(start);
+            System.err.println("Error fetching catalog changes:");
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * UserRepository backed by a SQL database (MySQL or the embedded H2 store).
+ */
+public class JdbcUserRepository implements UserRepository {
+
+    private final ConnectionPool pool;
+
+    public JdbcUserRepository(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Registers a new user in the database.
+     * Handles salt generation and password hashing.
+     * @return true if successful, false if username is taken.
+     */
+    @Override
+    public boolean registerUser(String username, String password) {
+        long start = System.nanoTime();
+        String checkUserSql = "SELECT COUNT(*) FROM users WHERE username = ?;";
+        
+        try (Connection conn = pool.getConnection();
+             PreparedStatement checkStmt = conn.prepareStatement(checkUserSql)) {
+
+            checkStmt.setString(1, username);
+            try (ResultSet rs = checkStmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    DbMetrics.REGISTER_USER.record(start, 0);
+                    return false; // Username is already taken
+                }
+            }
+
+            String salt = DBManager.generateSalt();
+            String hash = DBManager.hashPassword(password, salt);
+
+            String insertSql = "INSERT INTO users (username, salt, hash) VALUES (?, ?, ?);";
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
+                insertStmt.setString(1, username);
+                insertStmt.setString(2, salt);
+                insertStmt.setString(3, hash);
+                int rowsAffected = insertStmt.executeUpdate();
+                DbMetrics.REGISTER_USER.record(start, rowsAffected);
+                return true; // Registration successful
+            }
+
+        } catch (SQLException e) {
+            DbMetrics.REGISTER_USER.recordError(start);
+            System.err.println("Database error during registration: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Authenticates a user against the database.
+     * @return a User object (now with database ID) if successful, null otherwise.
+     */
+    @Override
+    public User authenticateUser(String username, String password) {
+        long start = System.nanoTime();
+        String sql = "SELECT id, salt, hash FROM users WHERE username = ?;";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                
+                boolean found = rs.next();
+                DbMetrics.AUTHENTICATE_USER.record(start, found ? 1 : 0);
+                if (found) { // User was found
+                    String dbSalt = rs.getString("salt");
+                    String dbHash = rs.getString("hash");
+                    
+                    String hashedInput = DBManager.hashPassword(password, dbSalt);
+                    
+                    if (hashedInput.equals(dbHash)) {
+                        int userId = rs.getInt("id"); 
+                        return new User(userId, username, dbSalt, dbHash);
+                    }
+                }
+                return null; // User not found or password incorrect
+            }
+        } catch (SQLException e) {
+            DbMetrics.AUTHENTICATE_USER.recordError(start);
+            System.err.println("Database error during authentication: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
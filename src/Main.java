@@ -15,13 +15,25 @@ public class Main {
             e.printStackTrace();
         }
         
+        // A missing JDBC driver would otherwise only show up later, as "No suitable driver"
+        try {
+            DBManager.checkBackend();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            JOptionPane.showMessageDialog(null, e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
+        }
+        
+        // Open database connections in the background while the UI comes up
+        Thread poolWarmUp = new Thread(DBManager::warmUpConnectionPool, "db-pool-warmup");
+        poolWarmUp.setDaemon(true);
+        poolWarmUp.start();
+        
         SwingUtilities.invokeLater(() -> {
             UserManager.initialize();
             
-            // --- ADDED THIS LINE ---
-            // This runs the cleanup task every time the app starts.
-            DBManager.cleanupOldOrders();
-            // --- END ADD ---
+            // Old orders are cleaned up on a background scheduler; startup never waits for it
+            OrderRetentionJob.start();
             
             showRoleSelector();
         });
@@ -0,0 +1,30 @@
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Publishes the app's MBeans on the platform MBean server.
+ * Registering under a name that is already taken replaces the earlier MBean: a new
+ * ShopApp builds a new grid, search scheduler and query cache, and JMX should show
+ * those rather than the ones left behind by the previous window.
+ */
+public final class Metrics {
+
+    private Metrics() {}
+
+    /**
+     * Registers an MBean, replacing any registered under the same name; a failure here only costs us the JMX view.
+     */
+    public static synchronized void register(String objectName, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (Exception e) {
+            System.err.println("Could not register MBean " + objectName + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count, rows returned and latency histogram for one operation.
+ * Callers take System.nanoTime() before the operation and pass it to record()
+ * or recordError(); neither allocates.
+ */
+public class OperationStats implements OperationStatsMBean {
+
+    private final String name;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a successful call that started at startNanos and returned the given number of rows.
+     */
+    public void record(long startNanos, long rowCount) {
+        latency.record(System.nanoTime() - startNanos);
+        rows.add(rowCount);
+    }
+
+    /**
+     * Records a failed call that started at startNanos.
+     */
+    public void recordError(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+        errors.increment();
+    }
+
+    public String getName() { return name; }
+
+    @Override public long getCount() { return latency.getCount(); }
+    @Override public long getErrorCount() { return errors.sum(); }
+    @Override public long getRowsReturned() { return rows.sum(); }
+    @Override public double getMeanMillis() { return latency.getMeanNanos() / 1e6; }
+    @Override public double getP50Millis() { return latency.getPercentileNanos(50) / 1e6; }
+    @Override public double getP95Millis() { return latency.getPercentileNanos(95) / 1e6; }
+    @Override public double getP99Millis() { return latency.getPercentileNanos(99) / 1e6; }
+    @Override public double getMaxMillis() { return latency.getMaxNanos() / 1e6; }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d errors=%d rows=%d p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                name, getCount(), getErrorCount(), getRowsReturned(),
+                getP50Millis(), getP95Millis(), getP99Millis(), getMaxMillis());
+    }
+}
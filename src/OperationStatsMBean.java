@@ -0,0 +1,13 @@
+/**
+ * JMX view of one instrumented operation (see DbMetrics).
+ */
+public interface OperationStatsMBean {
+    long getCount();
+    long getErrorCount();
+    long getRowsReturned();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP95Millis();
+    double getP99Millis();
+    double getMaxMillis();
+}
@@ -2,6 +2,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public class Order {
+    private final int dbId; // Primary key in the orders table. 0 until the order has been saved.
     private final String orderId;
     private final LocalDateTime orderDate;
     private final List<OrderItem> items;
@@ -9,7 +10,8 @@ public class Order {
 
     // This constructor is used when creating a NEW order from the cart
     public Order(List<Cart.CartItem> cartItems, double totalAmount) {
-        this.orderId = "ORD-" + System.currentTimeMillis();
+        this.dbId = 0;
+        this.orderId = OrderIdGenerator.nextOrderId();
         this.orderDate = LocalDateTime.now();
         this.totalAmount = totalAmount;
         this.items = cartItems.stream()
@@ -20,6 +22,12 @@ public class Order {
     // --- NEW CONSTRUCTOR ---
     // This is used when loading an EXISTING order from the database
     public Order(String orderId, LocalDateTime orderDate, double totalAmount, List<OrderItem> items) {
+        this(0, orderId, orderDate, totalAmount, items);
+    }
+
+    // Used when the database primary key is known, e.g. for keyset paging
+    public Order(int dbId, String orderId, LocalDateTime orderDate, double totalAmount, List<OrderItem> items) {
+        this.dbId = dbId;
         this.orderId = orderId;
         this.orderDate = orderDate;
         this.totalAmount = totalAmount;
@@ -27,6 +35,7 @@ public class Order {
     }
 
     // Getters
+    public int getDbId() { return dbId; }
     public String getOrderId() { return orderId; }
     public LocalDateTime getOrderDate() { return orderDate; }
     public List<OrderItem> getItems() { return items; }
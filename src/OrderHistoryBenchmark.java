@@ -0,0 +1,168 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order history benchmark: the old N+1 load (one query for the orders, then one per
+ * order for its items) against the single JOIN in DBManager.getOrderHistory, for users
+ * with 10, 100 and 1000 orders of three items each.
+ *
+ *   java OrderHistoryBenchmark [orders ...]   (default 10 100 1000)
+ *
+ * Runs against the SQL backend the shopeasy.db.* properties select; with none set it
+ * uses an in-memory H2 database, so the H2 jar has to be on the classpath. In-process H2
+ * has no network between the queries, so it shows the least the JOIN saves: point
+ * shopeasy.db.url at a MySQL server to see the round trips. The benchmark adds
+ * products, users and orders to whatever database it runs against.
+ *
+ * Not JMH, since the project has no build to run it from: every size is warmed up
+ * before any is timed, then each is timed over RUNS runs and averaged. Both loads must return the same orders and
+ * items, or the benchmark stops.
+ */
+public class OrderHistoryBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 20;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    public static void main(String[] args) throws SQLException {
+        if (System.getProperty("shopeasy.db.backend") == null) {
+            System.setProperty("shopeasy.db.backend", "h2");
+            System.setProperty("shopeasy.db.url", "jdbc:h2:mem:orderbench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        }
+        DBManager.checkBackend();
+        int[] sizes = args.length == 0 ? new int[]{10, 100, 1000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+
+        List<Product> products = seedProducts();
+        List<User> users = new ArrayList<>();
+        for (int size : sizes) {
+            User user = seedUser(size, products);
+            List<Order> joined = DBManager.getOrderHistory(user);
+            if (joined.size() != size || !sameOrders(joined, nPlusOneHistory(user))) {
+                throw new IllegalStateException("The two loads differ for " + size + " orders");
+            }
+            users.add(user);
+        }
+        // Warm up on every size before timing any, or the first sizes also time the JIT
+        for (User user : users) {
+            time(() -> nPlusOneHistory(user));
+            time(() -> DBManager.getOrderHistory(user));
+        }
+
+        for (int s = 0; s < sizes.length; s++) {
+            int size = sizes[s];
+            User user = users.get(s);
+            double nPlusOneMs = time(() -> nPlusOneHistory(user));
+            double joinMs = time(() -> DBManager.getOrderHistory(user));
+            System.out.printf("%,6d orders   N+1 (%,5d queries) %8.2f ms   JOIN (1 query) %8.2f ms   %5.1fx%n",
+                    size, size + 1, nPlusOneMs, joinMs, nPlusOneMs / joinMs);
+        }
+        System.exit(0); // The pool's and metrics threads would keep the JVM up
+    }
+
+    /**
+     * What DBManager.getOrderHistory did before the JOIN: a query per order for its items.
+     */
+    private static List<Order> nPlusOneHistory(User user) throws SQLException {
+        List<Order> orderHistory = new ArrayList<>();
+        String orderSql = "SELECT * FROM orders WHERE user_id = ? ORDER BY order_date DESC;";
+        String itemSql = "SELECT oi.*, p.name " +
+                         "FROM order_items oi " +
+                         "JOIN products p ON oi.product_id = p.id " +
+                         "WHERE oi.order_id = ?;";
+
+        try (Connection conn = DBManager.getConnection();
+             PreparedStatement orderStmt = conn.prepareStatement(orderSql)) {
+            orderStmt.setInt(1, user.getId());
+            try (ResultSet orderRs = orderStmt.executeQuery()) {
+                while (orderRs.next()) {
+                    List<OrderItem> items = new ArrayList<>();
+                    try (PreparedStatement itemStmt = conn.prepareStatement(itemSql)) {
+                        itemStmt.setInt(1, orderRs.getInt("id"));
+                        try (ResultSet itemRs = itemStmt.executeQuery()) {
+                            while (itemRs.next()) {
+                                items.add(new OrderItem(itemRs.getInt("product_id"), itemRs.getString("name"),
+                                        itemRs.getInt("quantity"), itemRs.getDouble("price_per_item")));
+                            }
+                        }
+                    }
+                    orderHistory.add(new Order(orderRs.getString("order_id_string"),
+                            orderRs.getTimestamp("order_date").toLocalDateTime(), orderRs.getDouble("total_price"), items));
+                }
+            }
+        }
+        return orderHistory;
+    }
+
+    private static List<Product> seedProducts() {
+        for (int i = 0; i < 50; i++) {
+            DBManager.addProduct(new Product(0, "Benchmark product " + i, 5 + i, "", "Electronics"));
+        }
+        return DBManager.getAllProducts();
+    }
+
+    /**
+     * A new user with the given number of orders, a minute apart so both loads order them the same way.
+     */
+    private static User seedUser(int orders, List<Product> products) {
+        String username = "orderbench-" + orders + "-" + System.nanoTime();
+        DBManager.registerUser(username, "benchmark");
+        User user = DBManager.authenticateUser(username, "benchmark");
+        LocalDateTime first = LocalDateTime.now().withNano(0).minusMinutes(orders);
+        for (int i = 0; i < orders; i++) {
+            List<OrderItem> items = new ArrayList<>();
+            double total = 0;
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                Product product = products.get((i * ITEMS_PER_ORDER + j) % products.size());
+                items.add(new OrderItem(product.getId(), product.getName(), 1 + j, product.getPrice()));
+                total += (1 + j) * product.getPrice();
+            }
+            Order order = new Order(OrderIdGenerator.nextOrderId(), first.plusMinutes(i), total, items);
+            if (!DBManager.saveOrder(user, order)) {
+                throw new IllegalStateException("Could not save a benchmark order");
+            }
+        }
+        return user;
+    }
+
+    private static boolean sameOrders(List<Order> a, List<Order> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            Order x = a.get(i);
+            Order y = b.get(i);
+            if (!x.getOrderId().equals(y.getOrderId()) || !itemsOf(x).equals(itemsOf(y))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * An order's items in a comparable form; neither load orders the items within an order.
+     */
+    private static List<String> itemsOf(Order order) {
+        List<String> items = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            items.add(item.getProductId() + " x" + item.getQuantity() + " " + item.getProductName());
+        }
+        items.sort(null);
+        return items;
+    }
+
+    private interface Load {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Mean milliseconds per run after warming up.
+     */
+    private static double time(Load load) throws SQLException {
+        for (int i = 0; i < WARMUP_RUNS; i++) load.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) load.run();
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+}
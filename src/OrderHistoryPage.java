@@ -1,6 +1,8 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -14,6 +16,15 @@ public class OrderHistoryPage extends JDialog {
     private static final Color TEXT_SECONDARY = new Color(127, 140, 141);
     private static final Color SUCCESS_COLOR = new Color(39, 174, 96);
     
+    private static final int PAGE_SIZE = 20;
+    private static final int LOAD_MORE_THRESHOLD_PX = 400;
+    
+    // Keyset paging state, only touched on the EDT
+    private Order lastLoadedOrder;
+    private int loadedOrderCount;
+    private boolean hasMorePages;
+    private boolean loadingPage;
+    
     public OrderHistoryPage(Frame parent, User user) {
         super(parent, "Your Order History", true);
         setupDialog();
@@ -31,16 +42,43 @@ public class OrderHistoryPage extends JDialog {
     private void initializeComponents(User user) {
         add(createHeader(), BorderLayout.NORTH);
         
-        List<Order> orders = DBManager.getOrderHistory(user);
-        
-        if (orders.isEmpty()) {
-            add(createEmptyState(), BorderLayout.CENTER);
-        } else {
-            add(createOrdersScrollPane(orders), BorderLayout.CENTER);
-        }
+        JLabel loadingLabel = new JLabel("Loading your orders...", SwingConstants.CENTER);
+        loadingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        loadingLabel.setForeground(TEXT_SECONDARY);
+        add(loadingLabel, BorderLayout.CENTER);
         
         add(createFooter(), BorderLayout.SOUTH);
         
+        // Only the summary and the first page are fetched before anything is shown
+        SwingWorker<List<Order>, Void> worker = new SwingWorker<>() {
+            private OrderSummary summary;
+            
+            @Override
+            protected List<Order> doInBackground() throws Exception {
+                summary = DBManager.getOrderSummary(user);
+                return DBManager.getOrderHistoryPage(user, null, 0, PAGE_SIZE);
+            }
+            
+            @Override
+            protected void done() {
+                remove(loadingLabel);
+                try {
+                    List<Order> firstPage = get();
+                    if (firstPage.isEmpty()) {
+                        add(createEmptyState(), BorderLayout.CENTER);
+                    } else {
+                        add(createOrdersScrollPane(user, summary, firstPage), BorderLayout.CENTER);
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    add(createEmptyState(), BorderLayout.CENTER);
+                }
+                revalidate();
+                repaint();
+            }
+        };
+        worker.execute();
+        
         setVisible(true);
     }
     
@@ -107,43 +145,103 @@ public class OrderHistoryPage extends JDialog {
         return emptyPanel;
     }
     
-    private JScrollPane createOrdersScrollPane(List<Order> orders) {
+    private JScrollPane createOrdersScrollPane(User user, OrderSummary summary, List<Order> firstPage) {
         JPanel ordersPanel = new JPanel();
         ordersPanel.setLayout(new BoxLayout(ordersPanel, BoxLayout.Y_AXIS));
         ordersPanel.setBackground(BACKGROUND_COLOR);
         ordersPanel.setBorder(new EmptyBorder(25, 25, 25, 25));
         
-        ordersPanel.add(createOrdersSummary(orders));
-        ordersPanel.add(Box.createVerticalStrut(20));
-        
-        for (int i = 0; i < orders.size(); i++) {
-            ordersPanel.add(createEnhancedOrderPanel(orders.get(i), i + 1));
-            if (i < orders.size() - 1) {
-                ordersPanel.add(Box.createVerticalStrut(20));
-            }
-        }
+        ordersPanel.add(createOrdersSummary(summary));
         
         JScrollPane scrollPane = new JScrollPane(ordersPanel);
         scrollPane.setBorder(null);
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         
+        appendOrders(ordersPanel, firstPage);
+        
+        // Fetch the next page in the background once the user scrolls near the bottom
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        scrollBar.addAdjustmentListener(e -> {
+            int distanceToBottom = scrollBar.getMaximum() - (scrollBar.getValue() + scrollBar.getVisibleAmount());
+            if (distanceToBottom < LOAD_MORE_THRESHOLD_PX) {
+                loadNextPage(user, ordersPanel);
+            }
+        });
+        // ...and whenever the viewport is resized, including when it is first shown
+        scrollPane.getViewport().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                loadMoreIfShort(user, ordersPanel);
+            }
+        });
+        
         return scrollPane;
     }
     
-    private JPanel createOrdersSummary(List<Order> orders) {
+    /**
+     * Loads the next page if the orders don't reach LOAD_MORE_THRESHOLD_PX below the
+     * viewport. Pages otherwise load on scrolling, and a list that doesn't fill the
+     * viewport can't scroll, so the rest of the history would never load.
+     */
+    private void loadMoreIfShort(User user, JPanel ordersPanel) {
+        if (!hasMorePages || !(ordersPanel.getParent() instanceof JViewport)) return;
+        JViewport viewport = (JViewport) ordersPanel.getParent();
+        if (viewport.getHeight() > 0
+                && ordersPanel.getPreferredSize().height < viewport.getHeight() + LOAD_MORE_THRESHOLD_PX) {
+            loadNextPage(user, ordersPanel);
+        }
+    }
+    
+    private void appendOrders(JPanel ordersPanel, List<Order> page) {
+        for (Order order : page) {
+            ordersPanel.add(Box.createVerticalStrut(20));
+            ordersPanel.add(createEnhancedOrderPanel(order, ++loadedOrderCount));
+        }
+        if (!page.isEmpty()) {
+            lastLoadedOrder = page.get(page.size() - 1);
+        }
+        hasMorePages = page.size() == PAGE_SIZE;
+        ordersPanel.revalidate();
+        ordersPanel.repaint();
+    }
+    
+    private void loadNextPage(User user, JPanel ordersPanel) {
+        if (loadingPage || !hasMorePages || lastLoadedOrder == null) return;
+        loadingPage = true;
+        
+        Order after = lastLoadedOrder;
+        SwingWorker<List<Order>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected List<Order> doInBackground() throws Exception {
+                return DBManager.getOrderHistoryPage(user, after.getOrderDate(), after.getDbId(), PAGE_SIZE);
+            }
+            
+            @Override
+            protected void done() {
+                loadingPage = false;
+                try {
+                    appendOrders(ordersPanel, get());
+                    loadMoreIfShort(user, ordersPanel);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    hasMorePages = false;
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private JPanel createOrdersSummary(OrderSummary summary) {
         JPanel summaryPanel = new JPanel(new GridLayout(1, 3, 15, 0));
         summaryPanel.setOpaque(false);
         
-        summaryPanel.add(createSummaryCard("Total Orders", String.valueOf(orders.size()), "📋"));
-        
-        double totalSpent = orders.stream().mapToDouble(Order::getTotalAmount).sum();
-        summaryPanel.add(createSummaryCard("Total Spent", String.format("₹%.2f", totalSpent), "💰"));
+        summaryPanel.add(createSummaryCard("Total Orders", String.valueOf(summary.getTotalOrders()), "📋"));
+        summaryPanel.add(createSummaryCard("Total Spent", String.format("₹%.2f", summary.getTotalSpent()), "💰"));
         
-        if (!orders.isEmpty()) {
-            Order recentOrder = orders.get(0);
+        if (summary.getLastOrderDate() != null) {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd");
-            summaryPanel.add(createSummaryCard("Last Order", recentOrder.getOrderDate().format(formatter), "🕒"));
+            summaryPanel.add(createSummaryCard("Last Order", summary.getLastOrderDate().format(formatter), "🕒"));
         }
         
         return summaryPanel;
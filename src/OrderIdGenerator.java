@@ -0,0 +1,153 @@
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style 64-bit id generator for orders.
+ * An id is 41 bits of milliseconds since 2024-01-01 UTC, 16 bits of node id and a
+ * 6-bit per-millisecond sequence, so ids are roughly time-ordered and unique across
+ * instances with distinct node ids. The (timestamp, sequence) pair lives in a single
+ * AtomicLong and is advanced with compare-and-set, so generation never blocks.
+ *
+ * If the wall clock steps backwards, or more than 64 ids are needed in one
+ * millisecond, the generator keeps counting forward from the last timestamp it
+ * issued instead of reusing an earlier one; ids stay unique and increasing. A client
+ * places orders far below 64 per millisecond, so the node id gets the bits instead.
+ *
+ * Without -Dshopeasy.nodeId each process picks its node id at random. By the birthday
+ * bound, two of n instances share one with probability about 1 - e^(-n^2 / 131072):
+ * 1% at 36 instances, 50% at 301. Sharing a node id alone is harmless; two instances
+ * must also take the same sequence number in the same millisecond, and then the
+ * UNIQUE order_id_string column rejects the second order, whose checkout fails rather
+ * than mixing with the first. Give each instance its own shopeasy.nodeId to rule it out.
+ */
+public class OrderIdGenerator {
+
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 16;
+    private static final int SEQUENCE_BITS = 6;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    // Node id from -Dshopeasy.nodeId, otherwise random per process
+    private static final long NODE_ID = resolveNodeId();
+
+    // Last issued (timestamp << SEQUENCE_BITS | sequence)
+    private static final AtomicLong state = new AtomicLong();
+    private static final AtomicLong clockRegressions = new AtomicLong();
+
+    private static long resolveNodeId() {
+        Integer configured = Integer.getInteger("shopeasy.nodeId");
+        if (configured != null) {
+            if (configured < 0 || configured > MAX_NODE_ID) {
+                throw new IllegalArgumentException("shopeasy.nodeId must be between 0 and " + MAX_NODE_ID);
+            }
+            return configured;
+        }
+        return new SecureRandom().nextInt((int) MAX_NODE_ID + 1);
+    }
+
+    /**
+     * Returns a new unique id.
+     */
+    public static long nextId() {
+        while (true) {
+            long last = state.get();
+            long lastMillis = last >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                if (now < lastMillis - 1) {
+                    clockRegressions.incrementAndGet();
+                }
+                // Same (or an earlier) millisecond: bump the sequence; overflow carries into the timestamp
+                next = last + 1;
+            }
+            if (state.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                     | (NODE_ID << SEQUENCE_BITS)
+                     | (next & ((1L << SEQUENCE_BITS) - 1));
+            }
+        }
+    }
+
+    /**
+     * Returns a new order id string, e.g. "ORD-1234567890123456789".
+     */
+    public static String nextOrderId() {
+        return "ORD-" + nextId();
+    }
+
+    /**
+     * Number of times the wall clock was seen running behind the last issued timestamp.
+     */
+    public static long getClockRegressions() {
+        return clockRegressions.get();
+    }
+
+    /**
+     * Uniqueness stress check: java OrderIdGenerator [threads] [idsPerThread]
+     * Every thread takes ids as fast as it can; each thread's ids must be strictly
+     * increasing, and no id may appear twice across threads. Exits with 1 on a violation.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 250_000;
+
+        long[][] ids = new long[threads][perThread];
+        boolean[] ordered = new boolean[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long[] mine = ids[thread];
+                boolean increasing = true;
+                for (int i = 0; i < perThread; i++) {
+                    mine[i] = nextId();
+                    if (i > 0 && mine[i] <= mine[i - 1]) increasing = false;
+                }
+                ordered[thread] = increasing;
+            }, "id-stress-" + t);
+            workers[t].start();
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        boolean ok = true;
+        for (int t = 0; t < threads; t++) {
+            if (!ordered[t]) {
+                System.out.println("❌ Ids of thread " + t + " are not strictly increasing");
+                ok = false;
+            }
+        }
+        long[] all = new long[threads * perThread];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(ids[t], 0, all, t * perThread, perThread);
+        }
+        Arrays.sort(all);
+        int duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) duplicates++;
+        }
+        if (duplicates > 0) {
+            System.out.println("❌ " + duplicates + " duplicate id(s)");
+            ok = false;
+        }
+
+        System.out.printf("%s %d threads x %d ids in %.0f ms (%.1f M ids/s), clock seen behind the last id: %d time(s)%n",
+                ok ? "✅" : "❌", threads, perThread, elapsedNanos / 1e6,
+                all.length / (elapsedNanos / 1e9) / 1e6, getClockRegressions());
+        if (!ok) System.exit(1);
+    }
+}
@@ -0,0 +1,47 @@
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Storage for placed orders and their items.
+ */
+public interface OrderRepository {
+
+    /**
+     * Saves one order and its items atomically.
+     * @return true if the save was successful.
+     */
+    boolean saveOrder(User user, Order order);
+
+    /**
+     * Saves a batch of orders atomically: either every order in it is stored or none is.
+     */
+    void saveOrderBatch(List<OrderWriter.PendingOrder> batch) throws SQLException;
+
+    /**
+     * Loads a user's whole order history, newest first.
+     */
+    List<Order> getOrderHistory(User user);
+
+    /**
+     * Loads one page of a user's order history, newest first, keyset-paged on (order_date, id).
+     * Pass null/0 for the first page.
+     */
+    List<Order> getOrderHistoryPage(User user, LocalDateTime afterOrderDate, int afterId, int limit);
+
+    /**
+     * Returns order count, total spent and last order date for a user.
+     */
+    OrderSummary getOrderSummary(User user);
+
+    /**
+     * Returns {minId, maxId} of orders placed before the cutoff, or null if there are none.
+     */
+    int[] getExpiredOrderIdRange(LocalDateTime cutoff);
+
+    /**
+     * Deletes expired orders with ids in [fromId, toId] together with their items.
+     * @return rows deleted, or -1 on error.
+     */
+    int deleteExpiredOrdersInRange(LocalDateTime cutoff, int fromId, int toId);
+}
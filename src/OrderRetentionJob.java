@@ -0,0 +1,137 @@
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes orders older than the retention period on a background scheduler.
+ * Work is done in bounded chunks of primary keys, each chunk removing the
+ * order_items and orders rows together in its own short transaction, with a
+ * pause between chunks so the database is never locked up by one big DELETE.
+ *
+ * A run that is stopped part-way keeps its position and picks up from there next
+ * time; after a restart it simply resumes from the oldest order still present,
+ * since every finished chunk has already been committed.
+ *
+ * stop() cancels the schedule and ends a running pass after its chunk; start()
+ * schedules it again. DBManager's shutdown hook calls shutdown(), which also lets the
+ * scheduler thread finish before the connection pool is closed.
+ */
+public class OrderRetentionJob {
+
+    private static final int RETENTION_DAYS = Integer.getInteger("shopeasy.retention.days", 7);
+    private static final int CHUNK_SIZE = Integer.getInteger("shopeasy.retention.chunkSize", 1000);
+    private static final long INITIAL_DELAY_SECONDS = 30;
+    private static final long PERIOD_HOURS = 6;
+
+    private static volatile long pauseBetweenChunksMs = Long.getLong("shopeasy.retention.pauseMs", 200);
+    private static volatile boolean stopRequested;
+    private static int resumeFromId; // Only touched by the scheduler thread
+
+    private static ScheduledExecutorService scheduler;
+    private static ScheduledFuture<?> schedule;
+
+    /**
+     * Schedules the job to run shortly after startup and then periodically.
+     * Returns immediately; nothing here touches the database on the caller's thread.
+     */
+    public static synchronized void start() {
+        if (schedule != null) return;
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "order-retention");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+        }
+        stopRequested = false;
+        schedule = scheduler.scheduleWithFixedDelay(OrderRetentionJob::runOnce,
+                INITIAL_DELAY_SECONDS, TimeUnit.HOURS.toSeconds(PERIOD_HOURS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Cancels the passes still to come and asks a running one to stop after its current
+     * chunk. start() schedules the job again, resuming where the stopped pass left off.
+     */
+    public static synchronized void stop() {
+        stopRequested = true;
+        if (schedule != null) {
+            schedule.cancel(false);
+            schedule = null;
+        }
+    }
+
+    /**
+     * Stops the job and waits briefly for a running chunk to commit, then ends the scheduler thread.
+     */
+    static synchronized void shutdown() {
+        stop();
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    /**
+     * Sets the pause between chunks; larger values put less load on the database.
+     */
+    public static void setPauseBetweenChunksMs(long pauseMs) {
+        pauseBetweenChunksMs = pauseMs;
+    }
+
+    /**
+     * Runs one full retention pass over all expired orders.
+     */
+    static void runOnce() {
+        if (stopRequested) return; // Stopped just as this pass came due
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(RETENTION_DAYS);
+
+        int[] range = DBManager.getExpiredOrderIdRange(cutoff);
+        if (range == null) {
+            System.out.println("Order cleanup ran: No old orders to delete.");
+            resumeFromId = 0;
+            return;
+        }
+
+        long start = System.nanoTime();
+        long rowsDeleted = 0;
+        int fromId = Math.max(range[0], resumeFromId);
+
+        try {
+            while (fromId <= range[1]) {
+                if (stopRequested) {
+                    resumeFromId = fromId;
+                    System.out.println("Order cleanup paused at order id " + fromId);
+                    break;
+                }
+                int toId = (int) Math.min((long) fromId + CHUNK_SIZE - 1, range[1]);
+                int deleted = DBManager.deleteExpiredOrdersInRange(cutoff, fromId, toId);
+                if (deleted < 0) {
+                    // Database error: remember where we were and try again next run
+                    resumeFromId = fromId;
+                    System.out.println("Order cleanup stopped at order id " + fromId + " after a database error; the next run resumes there.");
+                    break;
+                }
+                rowsDeleted += deleted;
+                fromId = toId + 1;
+                resumeFromId = fromId;
+                Thread.sleep(pauseBetweenChunksMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Order cleanup interrupted at order id " + fromId);
+        }
+        if (fromId <= range[1]) return; // Paused or failed part-way, and already said so
+
+        resumeFromId = 0;
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+        System.out.println(String.format("Cleanup successful: Deleted %d old order row(s) in %.1f s (%.0f rows/s).",
+                rowsDeleted, seconds, rowsDeleted / seconds));
+    }
+}
@@ -0,0 +1,22 @@
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate figures for a user's whole order history,
+ * computed by the database rather than by loading every order.
+ */
+public class OrderSummary {
+    private final int totalOrders;
+    private final double totalSpent;
+    private final LocalDateTime lastOrderDate; // null if the user has no orders
+
+    public OrderSummary(int totalOrders, double totalSpent, LocalDateTime lastOrderDate) {
+        this.totalOrders = totalOrders;
+        this.totalSpent = totalSpent;
+        this.lastOrderDate = lastOrderDate;
+    }
+
+    // Getters
+    public int getTotalOrders() { return totalOrders; }
+    public double getTotalSpent() { return totalSpent; }
+    public LocalDateTime getLastOrderDate() { return lastOrderDate; }
+}
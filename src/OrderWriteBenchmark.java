@@ -0,0 +1,132 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Order write benchmark: committing every order in its own transaction
+ * (DBManager.saveOrder) against the group-commit writer (DBManager.saveOrderAsync),
+ * with 1, 8 and 32 clients checking out at once. Reports orders per second and the
+ * latency of each save, from the call until the order is committed.
+ *
+ *   java OrderWriteBenchmark [ordersPerClient] [clients ...]   (default 200, then 1 8 32)
+ *
+ * Runs against the SQL backend the shopeasy.db.* properties select; with none set it
+ * uses an in-memory H2 database, so the H2 jar has to be on the classpath. Group commit
+ * saves commits, and an in-memory commit costs next to nothing: point shopeasy.db.url
+ * at a MySQL server, where each commit flushes the log, to see the difference. The
+ * writer's batch size and linger follow shopeasy.orders.batchSize and lingerMs. The
+ * benchmark adds products, a user and orders to whatever database it runs against.
+ *
+ * Not JMH, since the project has no build to run it from: both modes are warmed up,
+ * then each client count is run once per mode. Every order must save, or the benchmark stops.
+ */
+public class OrderWriteBenchmark {
+
+    private static final int WARMUP_ORDERS_PER_CLIENT = 50;
+    private static final int WARMUP_CLIENTS = 8;
+
+    private interface Save {
+        boolean save(User user, Order order);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (System.getProperty("shopeasy.db.backend") == null) {
+            System.setProperty("shopeasy.db.backend", "h2");
+            System.setProperty("shopeasy.db.url", "jdbc:h2:mem:orderwrites;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        }
+        DBManager.checkBackend();
+        int ordersPerClient = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int[] clientCounts = args.length > 1 ? new int[args.length - 1] : new int[]{1, 8, 32};
+        for (int i = 1; i < args.length; i++) clientCounts[i - 1] = Integer.parseInt(args[i]);
+
+        for (int i = 0; i < 20; i++) {
+            DBManager.addProduct(new Product(0, "Benchmark product " + i, 5 + i, "", "Electronics"));
+        }
+        List<Product> products = DBManager.getAllProducts();
+        String username = "orderwrites-" + System.nanoTime();
+        DBManager.registerUser(username, "benchmark");
+        User user = DBManager.authenticateUser(username, "benchmark");
+
+        Save perOrder = DBManager::saveOrder;
+        Save groupCommit = (u, order) -> DBManager.saveOrderAsync(u, order).join();
+        run(perOrder, user, products, WARMUP_CLIENTS, WARMUP_ORDERS_PER_CLIENT);
+        run(groupCommit, user, products, WARMUP_CLIENTS, WARMUP_ORDERS_PER_CLIENT);
+
+        System.out.println("clients   mode             orders/s      p50 ms    p99 ms    max ms");
+        for (int clients : clientCounts) {
+            report("per-order commit", run(perOrder, user, products, clients, ordersPerClient), clients);
+            report("group commit", run(groupCommit, user, products, clients, ordersPerClient), clients);
+        }
+        System.exit(0); // The pool's, writer's and metrics threads would keep the JVM up
+    }
+
+    private static void report(String mode, Result result, int clients) {
+        LatencyHistogram latency = result.latency;
+        System.out.printf("%7d   %-16s %9.0f %11.2f %9.2f %9.2f%n", clients, mode,
+                latency.getCount() / (result.elapsedNanos / 1e9),
+                latency.getPercentileNanos(50) / 1e6, latency.getPercentileNanos(99) / 1e6, latency.getMaxNanos() / 1e6);
+    }
+
+    private static class Result {
+        final LatencyHistogram latency;
+        final long elapsedNanos;
+
+        Result(LatencyHistogram latency, long elapsedNanos) {
+            this.latency = latency;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    /**
+     * Has each client save its orders one after another, like repeated checkouts.
+     */
+    private static Result run(Save save, User user, List<Product> products, int clients, int ordersPerClient)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < ordersPerClient; i++) {
+                    Order order = order(products, client + i);
+                    long begin = System.nanoTime();
+                    if (!save.save(user, order)) failures.incrementAndGet();
+                    latency.record(System.nanoTime() - begin);
+                }
+            }, "checkout-" + c);
+            thread.start();
+            threads.add(thread);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        long elapsed = System.nanoTime() - begin;
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " order(s) failed to save");
+        }
+        return new Result(latency, elapsed);
+    }
+
+    /**
+     * A three-item order, like a small cart.
+     */
+    private static Order order(List<Product> products, int seed) {
+        List<OrderItem> items = new ArrayList<>();
+        double total = 0;
+        for (int j = 0; j < 3; j++) {
+            Product product = products.get((seed * 3 + j) % products.size());
+            items.add(new OrderItem(product.getId(), product.getName(), 1, product.getPrice()));
+            total += product.getPrice();
+        }
+        return new Order(OrderIdGenerator.nextOrderId(), LocalDateTime.now(), total, items);
+    }
+}
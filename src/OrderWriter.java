@@ -0,0 +1,164 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group-commit stage for orders.
+ * Callers queue an order and get a future back; a single writer thread drains the
+ * queue in micro-batches of up to maxBatchSize orders and saves each batch with one
+ * transaction and one commit. An order that finds the queue otherwise empty is written
+ * at once; only when orders are already backing up does the writer linger up to
+ * maxLingerMs for more, so group commit costs a lone checkout no extra latency.
+ */
+public class OrderWriter {
+
+    /**
+     * An order waiting to be written, plus the future its caller is waiting on.
+     */
+    public static class PendingOrder {
+        private final User user;
+        private final Order order;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        PendingOrder(User user, Order order) {
+            this.user = user;
+            this.order = order;
+        }
+
+        public User getUser() { return user; }
+        public Order getOrder() { return order; }
+    }
+
+    private final int maxBatchSize;
+    private final long maxLingerMs;
+    private final BlockingQueue<PendingOrder> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private final Object submitLock = new Object();
+    private volatile boolean running = true; // Only cleared under submitLock, so no order is queued after it
+
+    // --- Metrics ---
+    private final AtomicLong ordersWritten = new AtomicLong();
+    private final AtomicLong ordersFailed = new AtomicLong();
+    private final AtomicLong batchesCommitted = new AtomicLong();
+    private final AtomicLong batchFallbacks = new AtomicLong();
+
+    public OrderWriter(int maxBatchSize, long maxLingerMs) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerMs = maxLingerMs;
+        writerThread = new Thread(this::runWriter, "order-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues an order for the next batch.
+     * @return a future that completes with true once the order is committed, false if it failed.
+     */
+    public CompletableFuture<Boolean> submit(User user, Order order) {
+        PendingOrder pending = new PendingOrder(user, order);
+        synchronized (submitLock) {
+            // Checked and queued together: once the writer sees running == false, nothing more arrives
+            if (running) {
+                queue.add(pending);
+                return pending.result;
+            }
+        }
+        pending.result.complete(false);
+        return pending.result;
+    }
+
+    private void runWriter() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+
+                // A lone order is an interactive checkout waiting on its commit: write it now.
+                // Only when others were already queued is it worth waiting for the batch to fill.
+                if (batch.size() > 1) {
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLingerMs);
+                    while (batch.size() < maxBatchSize) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) break;
+                        PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) break;
+                        batch.add(next);
+                    }
+                }
+
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Nothing interrupts this thread on purpose; write what was collected and keep draining
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingOrder> batch) {
+        try {
+            DBManager.saveOrderBatch(batch);
+            batchesCommitted.incrementAndGet();
+            ordersWritten.addAndGet(batch.size());
+            for (PendingOrder pending : batch) {
+                pending.result.complete(true);
+            }
+        } catch (SQLException e) {
+            // One bad order must not fail the whole batch: retry each one on its own
+            System.err.println("Batch of " + batch.size() + " order(s) failed, retrying individually: " + e.getMessage());
+            batchFallbacks.incrementAndGet();
+            for (PendingOrder pending : batch) {
+                boolean saved = DBManager.saveOrder(pending.user, pending.order);
+                (saved ? ordersWritten : ordersFailed).incrementAndGet();
+                pending.result.complete(saved);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            ordersFailed.addAndGet(batch.size());
+            for (PendingOrder pending : batch) {
+                pending.result.complete(false);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting orders, writes everything already queued, and waits for the writer to finish.
+     * The writer isn't interrupted: an interrupt during a batch would fail the pool's
+     * connection wait and every retry after it. It notices within one poll timeout instead.
+     */
+    public void close() {
+        synchronized (submitLock) {
+            running = false;
+        }
+        try {
+            writerThread.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Metrics getters ---
+    public long getOrdersWritten() { return ordersWritten.get(); }
+    public long getOrdersFailed() { return ordersFailed.get(); }
+    public long getBatchesCommitted() { return batchesCommitted.get(); }
+    public int getQueueDepth() { return queue.size(); }
+
+    @Override
+    public String toString() {
+        long batches = batchesCommitted.get();
+        double avgBatch = batches == 0 ? 0.0 : (double) ordersWritten.get() / batches;
+        return String.format("OrderWriter[written=%d, failed=%d, batches=%d, avgBatch=%.1f, fallbacks=%d, queued=%d]",
+                ordersWritten.get(), ordersFailed.get(), batches, avgBatch, batchFallbacks.get(), queue.size());
+    }
+}
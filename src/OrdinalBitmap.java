@@ -0,0 +1,308 @@
+import java.util.Arrays;
+
+/**
+ * A compressed set of catalog ordinals, laid out the way Roaring bitmaps are.
+ * Ordinals are split by their high 16 bits into chunks of 65536. A chunk holding
+ * up to 4096 ordinals is a sorted char array; a denser chunk is a 1024-word bitmap.
+ * Sparse and dense sets both stay small, and intersections work chunk by chunk,
+ * picking the cheapest algorithm for each pair of containers.
+ */
+public class OrdinalBitmap {
+
+    private static final int ARRAY_MAX = 4096; // Beyond this a bitmap container is smaller
+
+    private char[] keys = new char[4];              // High 16 bits of each chunk, ascending
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Builds a bitmap from ordinals that are already in ascending order.
+     */
+    public static OrdinalBitmap fromSorted(int[] ordinals) {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        int i = 0;
+        while (i < ordinals.length) {
+            char key = (char) (ordinals[i] >>> 16);
+            int end = i;
+            while (end < ordinals.length && (ordinals[end] >>> 16) == key) end++;
+            Container container;
+            if (end - i <= ARRAY_MAX) {
+                char[] values = new char[end - i];
+                for (int j = i; j < end; j++) values[j - i] = (char) ordinals[j];
+                container = new ArrayContainer(values, values.length);
+            } else {
+                BitmapContainer dense = new BitmapContainer();
+                for (int j = i; j < end; j++) dense.add((char) ordinals[j]);
+                container = dense;
+            }
+            bitmap.append(key, container);
+            i = end;
+        }
+        return bitmap;
+    }
+
+    public void add(int ordinal) {
+        char key = (char) (ordinal >>> 16);
+        int index = findKey(key);
+        if (index >= 0) {
+            containers[index] = containers[index].add((char) ordinal);
+        } else {
+            insert(-index - 1, key, new ArrayContainer(new char[4], 0).add((char) ordinal));
+        }
+    }
+
+    public void remove(int ordinal) {
+        int index = findKey((char) (ordinal >>> 16));
+        if (index < 0) return;
+        Container container = containers[index].remove((char) ordinal);
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    public boolean contains(int ordinal) {
+        int index = findKey((char) (ordinal >>> 16));
+        return index >= 0 && containers[index].contains((char) ordinal);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) total += containers[i].cardinality();
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a new bitmap holding the ordinals present in both.
+     */
+    public OrdinalBitmap and(OrdinalBitmap other) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else {
+                Container both = containers[i].and(other.containers[j]);
+                if (both.cardinality() > 0) result.append(keys[i], both);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ordinals in ascending order.
+     */
+    public int[] toArray() {
+        int[] ordinals = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n = containers[i].copyTo(ordinals, n, keys[i] << 16);
+        }
+        return ordinals;
+    }
+
+    private int findKey(char key) {
+        // Appends dominate, so check the last chunk before searching
+        if (size > 0 && keys[size - 1] == key) return size - 1;
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void append(char key, Container container) {
+        insert(size, key, container);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    /**
+     * The low 16 bits of the ordinals in one chunk. Mutators return the container to
+     * keep, which is a different kind of container when the density crosses ARRAY_MAX.
+     */
+    private abstract static class Container {
+        abstract Container add(char value);
+        abstract Container remove(char value);
+        abstract boolean contains(char value);
+        abstract int cardinality();
+        abstract Container and(Container other);
+        abstract int copyTo(int[] out, int offset, int high);
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) return this;
+            if (cardinality == ARRAY_MAX) {
+                BitmapContainer dense = BitmapContainer.of(this);
+                dense.add(value);
+                return dense;
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[cardinality];
+            int n = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                int i = 0, j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) i++;
+                    else if (values[i] > array.values[j]) j++;
+                    else {
+                        result[n++] = values[i++];
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        int copyTo(int[] out, int offset, int high) {
+            for (int i = 0; i < cardinality; i++) {
+                out[offset++] = high | values[i];
+            }
+            return offset;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[1024];
+        private int cardinality;
+
+        static BitmapContainer of(ArrayContainer array) {
+            BitmapContainer dense = new BitmapContainer();
+            for (int i = 0; i < array.cardinality; i++) {
+                dense.add(array.values[i]);
+            }
+            return dense;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+                if (cardinality <= ARRAY_MAX / 2) return toArrayContainer(); // Hysteresis, so add/remove doesn't flip-flop
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+            BitmapContainer dense = (BitmapContainer) other;
+            BitmapContainer result = new BitmapContainer();
+            for (int w = 0; w < words.length; w++) {
+                result.words[w] = words[w] & dense.words[w];
+                result.cardinality += Long.bitCount(result.words[w]);
+            }
+            return result.cardinality <= ARRAY_MAX ? result.toArrayContainer() : result;
+        }
+
+        @Override
+        int copyTo(int[] out, int offset, int high) {
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    out[offset++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return offset;
+        }
+
+        private ArrayContainer toArrayContainer() {
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * Price range slider drawn over a histogram of matching products per price bucket.
+ * Two handles pick the low and high end of the range; bars inside the range are
+ * drawn in the accent colour. Listeners are told when a drag ends, not on every
+ * mouse move, so each drag runs one filter.
+ */
+public class PriceRangeFilter extends JComponent {
+
+    private static final int HANDLE_RADIUS = 7;
+    private static final int TRACK_HEIGHT = 4;
+    private static final int PADDING = HANDLE_RADIUS + 2;
+    private static final Color BAR_COLOR = new Color(206, 212, 218);
+    private static final Color ACTIVE_COLOR = new Color(40, 167, 69);
+
+    private int[] buckets = new int[0];
+    private double minPrice;
+    private double maxPrice;
+    private double low;
+    private double high;
+    private boolean fullRange = true;
+    private int dragging = -1; // 0 = low handle, 1 = high handle
+
+    public PriceRangeFilter() {
+        setPreferredSize(new Dimension(320, 56));
+        setToolTipText("Drag the handles to filter by price");
+        setCursor(new Cursor(Cursor.HAND_CURSOR));
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (maxPrice <= minPrice) return;
+                double price = priceAt(e.getX());
+                // Grab whichever handle is closer
+                dragging = Math.abs(price - low) <= Math.abs(price - high) ? 0 : 1;
+                moveHandle(price);
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragging >= 0) moveHandle(priceAt(e.getX()));
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                if (dragging < 0) return;
+                dragging = -1;
+                fullRange = low <= minPrice && high >= maxPrice;
+                fireStateChanged();
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    /**
+     * Shows a new histogram. A range that covered everything keeps covering everything,
+     * otherwise the selected range is kept, clamped to the new extents.
+     */
+    public void setHistogram(int[] buckets, double minPrice, double maxPrice) {
+        this.buckets = buckets;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        if (fullRange) {
+            low = minPrice;
+            high = maxPrice;
+        } else {
+            low = Math.max(minPrice, Math.min(low, maxPrice));
+            high = Math.max(low, Math.min(high, maxPrice));
+        }
+        repaint();
+    }
+
+    /** Lowest selected price, or negative infinity when the whole range is selected. */
+    public double getLow() { return fullRange ? Double.NEGATIVE_INFINITY : low; }
+    /** Highest selected price, or positive infinity when the whole range is selected. */
+    public double getHigh() { return fullRange ? Double.POSITIVE_INFINITY : high; }
+    public boolean isFullRange() { return fullRange; }
+
+    /**
+     * Returns the selected range as text, e.g. "₹100.00 – ₹450.00".
+     */
+    public String getRangeText() {
+        return String.format("₹%.2f – ₹%.2f", low, high);
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listenerList.add(ChangeListener.class, listener);
+    }
+
+    private void fireStateChanged() {
+        ChangeEvent event = new ChangeEvent(this);
+        for (ChangeListener listener : listenerList.getListeners(ChangeListener.class)) {
+            listener.stateChanged(event);
+        }
+    }
+
+    private void moveHandle(double price) {
+        price = Math.max(minPrice, Math.min(maxPrice, price));
+        if (dragging == 0) low = Math.min(price, high);
+        else high = Math.max(price, low);
+        fullRange = false; // Decided for real on release
+        setToolTipText(getRangeText());
+        repaint();
+    }
+
+    private double priceAt(int x) {
+        int width = getWidth() - 2 * PADDING;
+        double fraction = width <= 0 ? 0 : (x - PADDING) / (double) width;
+        return minPrice + Math.max(0, Math.min(1, fraction)) * (maxPrice - minPrice);
+    }
+
+    private int xOf(double price) {
+        int width = getWidth() - 2 * PADDING;
+        double fraction = maxPrice <= minPrice ? 0 : (price - minPrice) / (maxPrice - minPrice);
+        return PADDING + (int) Math.round(fraction * width);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        int width = getWidth() - 2 * PADDING;
+        int trackY = getHeight() - HANDLE_RADIUS - 2;
+        int chartHeight = trackY - HANDLE_RADIUS - 2;
+
+        int tallest = 0;
+        for (int count : buckets) tallest = Math.max(tallest, count);
+        if (tallest > 0 && buckets.length > 0) {
+            double barWidth = width / (double) buckets.length;
+            for (int b = 0; b < buckets.length; b++) {
+                if (buckets[b] == 0) continue;
+                int barHeight = Math.max(1, (int) Math.round(buckets[b] / (double) tallest * chartHeight));
+                int x = PADDING + (int) Math.round(b * barWidth);
+                int nextX = PADDING + (int) Math.round((b + 1) * barWidth);
+                double bucketLow = minPrice + (maxPrice - minPrice) * b / buckets.length;
+                double bucketHigh = minPrice + (maxPrice - minPrice) * (b + 1) / buckets.length;
+                g2.setColor(bucketHigh >= low && bucketLow <= high ? ACTIVE_COLOR : BAR_COLOR);
+                g2.fillRect(x, trackY - HANDLE_RADIUS - 2 - barHeight, Math.max(1, nextX - x - 1), barHeight);
+            }
+        }
+
+        g2.setColor(BAR_COLOR);
+        g2.fillRoundRect(PADDING, trackY - TRACK_HEIGHT / 2, width, TRACK_HEIGHT, TRACK_HEIGHT, TRACK_HEIGHT);
+        int lowX = xOf(low);
+        int highX = xOf(high);
+        g2.setColor(ACTIVE_COLOR);
+        g2.fillRect(lowX, trackY - TRACK_HEIGHT / 2, highX - lowX, TRACK_HEIGHT);
+
+        for (int x : new int[]{lowX, highX}) {
+            g2.setColor(Color.WHITE);
+            g2.fillOval(x - HANDLE_RADIUS, trackY - HANDLE_RADIUS, 2 * HANDLE_RADIUS, 2 * HANDLE_RADIUS);
+            g2.setColor(ACTIVE_COLOR);
+            g2.drawOval(x - HANDLE_RADIUS, trackY - HANDLE_RADIUS, 2 * HANDLE_RADIUS, 2 * HANDLE_RADIUS);
+        }
+        g2.dispose();
+    }
+}
@@ -0,0 +1,364 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The client-side product catalog and its indexes.
+ * Each product gets an ordinal (its slot in an append-only array) when it is added,
+ * and every index refers to products by ordinal. Removing or replacing a product
+ * tombstones its old slot; once tombstones outnumber live products the catalog is
+ * compacted and all indexes are rebuilt.
+ *
+ * Not thread-safe, and queries write too (the sort orders merge lazily). ShopApp
+ * confines the catalog to its search worker: updates are queued there between
+ * queries (SearchScheduler.update), so nothing waits on a lock.
+ */
+public class ProductCatalog {
+
+    /**
+     * The orders the grid can be sorted in. Ties are broken by id, so every order is total.
+     */
+    public enum SortKey {
+        ID(Comparator.comparingInt(Product::getId)),
+        PRICE(Comparator.comparingDouble(Product::getPrice).thenComparingInt(Product::getId)),
+        NAME(Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER).thenComparingInt(Product::getId));
+
+        private final Comparator<Product> comparator;
+
+        SortKey(Comparator<Product> comparator) {
+            this.comparator = comparator;
+        }
+
+        public Comparator<Product> comparator() { return comparator; }
+    }
+
+    /**
+     * The products a query matched, plus the facet counts around them: how the matches
+     * split across categories, and across price buckets. The facets are shared with
+     * the query cache, so callers copy them before making changes.
+     */
+    public static class QueryResult {
+        private final String category;
+        private final boolean fuzzy;
+        private final List<Product> products;
+        private final int searchMatchCount;
+        private final Map<String, Integer> categoryCounts;
+        private final int[] priceBuckets;
+        private final double minPrice;
+        private final double maxPrice;
+
+        QueryResult(String category, boolean fuzzy, List<Product> products, int searchMatchCount, Map<String, Integer> categoryCounts,
+                    int[] priceBuckets, double minPrice, double maxPrice) {
+            this.category = category;
+            this.fuzzy = fuzzy;
+            this.products = products;
+            this.searchMatchCount = searchMatchCount;
+            this.categoryCounts = categoryCounts;
+            this.priceBuckets = priceBuckets;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+        }
+
+        /** The category the query was filtered by. */
+        public String getCategory() { return category; }
+        /** True if nothing contained the search text and the products are close (typo-tolerant) matches instead. */
+        public boolean isFuzzy() { return fuzzy; }
+        /** Matching products in the requested order; the list is the caller's to modify. */
+        public List<Product> getProducts() { return products; }
+        /** Products matching the search text and price range, in any category. */
+        public int getSearchMatchCount() { return searchMatchCount; }
+        /** Products matching the search text and price range, per category (case-insensitive keys). */
+        public Map<String, Integer> getCategoryCounts() { return categoryCounts; }
+        /** Products matching the search text and category, per price bucket, ignoring the price range. */
+        public int[] getPriceBuckets() { return priceBuckets; }
+        /** Cheapest price in the catalog; the buckets evenly split minPrice..maxPrice. */
+        public double getMinPrice() { return minPrice; }
+        /** Dearest price in the catalog. */
+        public double getMaxPrice() { return maxPrice; }
+    }
+
+    /**
+     * What the query cache keeps of a result: ordinals instead of products, which are
+     * looked up again on a hit, and the facets, which callers copy before changing.
+     */
+    private static class CachedQuery {
+        final int[] ordinals;
+        final boolean fuzzy;
+        final int searchMatchCount;
+        final Map<String, Integer> categoryCounts;
+        final int[] priceBuckets;
+        final double minPrice;
+        final double maxPrice;
+
+        CachedQuery(int[] ordinals, boolean fuzzy, int searchMatchCount, Map<String, Integer> categoryCounts,
+                    int[] priceBuckets, double minPrice, double maxPrice) {
+            this.ordinals = ordinals;
+            this.fuzzy = fuzzy;
+            this.searchMatchCount = searchMatchCount;
+            this.categoryCounts = Collections.unmodifiableMap(categoryCounts);
+            this.priceBuckets = priceBuckets;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+        }
+
+        long estimatedBytes() {
+            // Array headers and ints, plus a TreeMap entry and short key per category
+            return 16 + 4L * ordinals.length + 16 + 4L * priceBuckets.length + 80L * categoryCounts.size();
+        }
+    }
+
+    public static final int PRICE_BUCKETS = 24;
+
+    private static final int MIN_COMPACT_TOMBSTONES = 1024;
+
+    private final List<Product> products = new ArrayList<>(); // ordinal -> product, null if removed
+    private final Map<Integer, Integer> ordinalById = new HashMap<>();
+    private CatalogSearchIndex searchIndex = new CatalogSearchIndex();
+    private FuzzyNameIndex fuzzyIndex = new FuzzyNameIndex();
+    private CategoryIndex categoryIndex = new CategoryIndex();
+    private final Map<SortKey, CatalogSortOrder> sortOrders = new EnumMap<>(SortKey.class);
+    private int tombstones;
+    private long version; // Bumped on every change
+    private final QueryCache<CachedQuery> queryCache = new QueryCache<>(CachedQuery::estimatedBytes);
+
+    /**
+     * Adds a product, or replaces the product with the same id.
+     */
+    public void put(Product product) {
+        IntList added = new IntList(1);
+        added.add(append(product));
+        addToSortOrders(added);
+    }
+
+    /**
+     * Adds or replaces several products, merging them into the sort orders in one pass.
+     */
+    public void putAll(Collection<Product> newProducts) {
+        IntList added = new IntList(newProducts.size());
+        for (Product product : newProducts) {
+            added.add(append(product));
+        }
+        addToSortOrders(added);
+        compactIfNeeded();
+    }
+
+    private int append(Product product) {
+        Integer oldOrdinal = ordinalById.get(product.getId());
+        if (oldOrdinal != null) {
+            tombstone(oldOrdinal);
+        }
+        int ordinal = products.size();
+        products.add(product);
+        ordinalById.put(product.getId(), ordinal);
+        searchIndex.add(ordinal, product.getName());
+        fuzzyIndex.add(ordinal, product.getName());
+        categoryIndex.add(ordinal, product.getCategory());
+        version++;
+        return ordinal;
+    }
+
+    private void addToSortOrders(IntList added) {
+        for (SortKey key : SortKey.values()) {
+            sortOrders.computeIfAbsent(key, k -> new CatalogSortOrder(k.comparator(), products)).addAll(added);
+        }
+    }
+
+    /**
+     * Removes the product with the given id, if present.
+     */
+    public void remove(int productId) {
+        Integer ordinal = ordinalById.remove(productId);
+        if (ordinal != null) {
+            tombstone(ordinal);
+            version++;
+        }
+    }
+
+    private void tombstone(int ordinal) {
+        products.set(ordinal, null);
+        searchIndex.remove(ordinal);
+        fuzzyIndex.remove(ordinal);
+        categoryIndex.remove(ordinal);
+        tombstones++;
+    }
+
+    /**
+     * Drops every product.
+     */
+    public void clear() {
+        products.clear();
+        ordinalById.clear();
+        searchIndex = new CatalogSearchIndex();
+        fuzzyIndex = new FuzzyNameIndex();
+        categoryIndex = new CategoryIndex();
+        for (CatalogSortOrder sortOrder : sortOrders.values()) {
+            sortOrder.clear();
+        }
+        tombstones = 0;
+        version++;
+    }
+
+    /**
+     * Rewrites the catalog without tombstones once they dominate, rebuilding every index.
+     */
+    public void compactIfNeeded() {
+        if (tombstones < MIN_COMPACT_TOMBSTONES || tombstones < ordinalById.size()) return;
+        List<Product> live = getAll();
+        clear();
+        putAll(live);
+    }
+
+    /**
+     * Returns the live products whose name contains the search text, whose category
+     * matches ("All" matches every category) and whose price lies in [minPrice, maxPrice],
+     * arranged by the given sort key. Pass infinite bounds for no price filter.
+     *
+     * Names are answered from the search index, categories from their bitmaps (an AND
+     * when both apply), the price range by binary searching the price order, and the
+     * order from the precomputed sort orders, so no product is compared or
+     * string-matched per query. Each facet is counted with the other filters applied:
+     * category counts respect the search and price range, the price histogram
+     * respects the search and category.
+     *
+     * If no name contains the search text, the search falls back to close matches:
+     * names whose words are each within a small edit distance of the query's words.
+     * Those are ranked by total distance first, then by the sort key.
+     *
+     * Results are kept in a QueryCache keyed by the normalized inputs, so repeating a
+     * query (clearing the search box, toggling back to a category) skips all of the
+     * above until the catalog changes.
+     */
+    public QueryResult query(String searchText, String category, double minPrice, double maxPrice,
+                              SortKey sortKey, boolean descending) {
+        if (isEmpty()) {
+            return new QueryResult(category, false, new ArrayList<>(), 0, categoryIndex.countByCategory(null), new int[PRICE_BUCKETS], 0, 0);
+        }
+        String text = CatalogSearchIndex.normalize(searchText);
+        String key = QueryCache.key(text, category.trim().toLowerCase(), minPrice, maxPrice, sortKey, descending);
+        CachedQuery cached = queryCache.get(key, version);
+        if (cached == null) {
+            cached = run(text, category, minPrice, maxPrice, sortKey, descending);
+            queryCache.put(key, cached, version);
+        }
+
+        List<Product> result = new ArrayList<>(cached.ordinals.length);
+        for (int ordinal : cached.ordinals) {
+            result.add(products.get(ordinal));
+        }
+        return new QueryResult(category, cached.fuzzy, result, cached.searchMatchCount, cached.categoryCounts,
+                cached.priceBuckets, cached.minPrice, cached.maxPrice);
+    }
+
+    private CachedQuery run(String text, String category, double minPrice, double maxPrice, SortKey sortKey, boolean descending) {
+        int[] matches = text.isEmpty() ? null : searchIndex.search(text); // null: every product matches
+        FuzzyNameIndex.Matches fuzzyMatches = null;
+        if (matches != null && matches.length == 0) {
+            fuzzyMatches = fuzzyIndex.search(text);
+            matches = fuzzyMatches.getOrdinals();
+        }
+
+        // The price range is a run of positions in the price order; membership is a rank check
+        CatalogSortOrder byPrice = sortOrders.get(SortKey.PRICE);
+        boolean priceFiltered = minPrice > Double.NEGATIVE_INFINITY || maxPrice < Double.POSITIVE_INFINITY;
+        int from = priceFiltered ? byPrice.lowerBound(p -> p.getPrice() < minPrice) : 0;
+        int to = priceFiltered ? byPrice.lowerBound(p -> p.getPrice() <= maxPrice) : 0;
+
+        int[] inRange = matches;
+        if (priceFiltered) {
+            inRange = matches == null ? byPrice.ordinalsBetween(from, to) : withinPositions(matches, byPrice, from, to);
+        }
+        Map<String, Integer> categoryCounts = categoryIndex.countByCategory(inRange);
+        int searchMatchCount = inRange == null ? size() : inRange.length;
+
+        int[] ordinals;
+        if ("All".equalsIgnoreCase(category)) {
+            ordinals = matches != null ? matches : searchIndex.search(text);
+        } else if (matches == null) {
+            ordinals = categoryIndex.get(category).toArray();
+        } else {
+            ordinals = OrdinalBitmap.fromSorted(matches).and(categoryIndex.get(category)).toArray();
+        }
+
+        // One pass over search + category matches: fill the histogram, keep those in range
+        double lowest = byPrice.first(false).getPrice();
+        double highest = byPrice.first(true).getPrice();
+        int[] priceBuckets = new int[PRICE_BUCKETS];
+        IntList kept = new IntList(ordinals.length);
+        for (int ordinal : ordinals) {
+            priceBuckets[priceBucket(products.get(ordinal).getPrice(), lowest, highest)]++;
+            int position = priceFiltered ? byPrice.positionOf(ordinal) : 0;
+            if (position >= from && (!priceFiltered || position < to)) kept.add(ordinal);
+        }
+        ordinals = sortOrders.get(sortKey).sort(kept.toArray(), descending);
+        if (fuzzyMatches != null) {
+            ordinals = byDistance(ordinals, fuzzyMatches);
+        }
+
+        boolean fuzzy = fuzzyMatches != null && fuzzyMatches.getOrdinals().length > 0;
+        return new CachedQuery(ordinals, fuzzy, searchMatchCount, categoryCounts, priceBuckets, lowest, highest);
+    }
+
+    /**
+     * Stable-sorts already ordered ordinals by their fuzzy match distance, closest first.
+     */
+    private static int[] byDistance(int[] ordinals, FuzzyNameIndex.Matches fuzzyMatches) {
+        int[] distances = new int[ordinals.length];
+        int maxDistance = 0;
+        for (int i = 0; i < ordinals.length; i++) {
+            distances[i] = fuzzyMatches.distanceOf(ordinals[i]);
+            maxDistance = Math.max(maxDistance, distances[i]);
+        }
+        // Counting sort: distances are small
+        int[] starts = new int[maxDistance + 2];
+        for (int distance : distances) starts[distance + 1]++;
+        for (int d = 1; d < starts.length; d++) starts[d] += starts[d - 1];
+        int[] ranked = new int[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            ranked[starts[distances[i]]++] = ordinals[i];
+        }
+        return ranked;
+    }
+
+    private static int[] withinPositions(int[] ordinals, CatalogSortOrder order, int from, int to) {
+        IntList within = new IntList(ordinals.length);
+        for (int ordinal : ordinals) {
+            int position = order.positionOf(ordinal);
+            if (position >= from && position < to) within.add(ordinal);
+        }
+        return within.toArray();
+    }
+
+    /**
+     * Which of the PRICE_BUCKETS equal-width buckets between lowest and highest a price falls in.
+     */
+    public static int priceBucket(double price, double lowest, double highest) {
+        if (highest <= lowest) return 0;
+        int bucket = (int) ((price - lowest) / (highest - lowest) * PRICE_BUCKETS);
+        return Math.max(0, Math.min(PRICE_BUCKETS - 1, bucket));
+    }
+
+    /**
+     * Returns every live product, in catalog order.
+     */
+    public List<Product> getAll() {
+        List<Product> live = new ArrayList<>(ordinalById.size());
+        for (Product product : products) {
+            if (product != null) live.add(product);
+        }
+        return live;
+    }
+
+    public Product getById(int productId) {
+        Integer ordinal = ordinalById.get(productId);
+        return ordinal == null ? null : products.get(ordinal);
+    }
+
+    public int size() { return ordinalById.size(); }
+    public boolean isEmpty() { return ordinalById.isEmpty(); }
+    public long getVersion() { return version; }
+}
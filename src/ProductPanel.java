@@ -3,15 +3,28 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.net.URL;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * One product card in the grid. Cards are recycled: bind() points a card at another
+ * product, so the grid only needs as many cards as fit on screen.
+ */
 public class ProductPanel extends JPanel {
-    private final Product product;
+    private static final int IMAGE_SIZE = 220;
+
+    private Product product;
     private final Cart cart;
     private final Runnable globalRefreshCallback;
 
     private JPanel buttonContainer; // final removed
     private JLabel quantityLabel;   // final removed
+    private JLabel imageLabel;
+    private JLabel nameLabel;
+    private JLabel priceLabel;
+    private ImageCache.Request imageRequest; // Load of the shown image; null if cancelled before it finished
+    private int imagePriority;
 
     public ProductPanel(Product product, Cart cart, Runnable globalRefreshCallback) {
         this.product = product;
@@ -23,6 +36,55 @@ public class ProductPanel extends JPanel {
         updateButtonState();
     }
     
+    /**
+     * Shows another product, or a newer version of this one, reusing the card's
+     * components. The image is only fetched again if its path changed.
+     */
+    public void bind(Product product) {
+        Product previous = this.product;
+        this.product = product;
+        if (product != previous) {
+            nameLabel.setText(nameHtml(product));
+            priceLabel.setText(formatPrice(product));
+            updateButtonState();
+        }
+        if (imageRequest == null || !Objects.equals(previous.getImagePath(), product.getImagePath())) {
+            resetImageLabel();
+            loadAndSetImage(product.getImagePath(), imageLabel);
+        }
+    }
+    
+    /**
+     * How soon this card's image is wanted, lower first. The grid passes the card's
+     * distance in pixels from the viewport.
+     */
+    public void setImagePriority(int priority) {
+        if (priority == imagePriority) return;
+        imagePriority = priority;
+        if (imageRequest != null) imageRequest.setPriority(priority);
+    }
+    
+    /**
+     * Gives up on the image if it is still loading, e.g. because the card scrolled out
+     * of view. The next bind() asks for it again.
+     */
+    public void cancelImageLoad() {
+        if (imageRequest != null && !imageRequest.future().isDone()) {
+            imageRequest.cancel();
+            imageRequest = null;
+        }
+    }
+    
+    @Override
+    public void removeNotify() {
+        cancelImageLoad();
+        super.removeNotify();
+    }
+    
+    public Product getProduct() {
+        return product;
+    }
+    
     private void setupPanel() {
         setLayout(new BorderLayout(0, 12));
         setBorder(BorderFactory.createCompoundBorder(
@@ -75,11 +137,10 @@ public class ProductPanel extends JPanel {
         imagePanel.setOpaque(false);
         imagePanel.setPreferredSize(new Dimension(220, 220));
         
-        JLabel imageLabel = new JLabel("Loading...");
+        imageLabel = new JLabel();
+        resetImageLabel();
         imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
         imageLabel.setVerticalAlignment(SwingConstants.CENTER);
-        imageLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-        imageLabel.setForeground(new Color(120, 120, 120));
         imageLabel.setPreferredSize(new Dimension(220, 220));
         imageLabel.setBorder(BorderFactory.createLineBorder(new Color(240, 240, 240), 1));
         imageLabel.setBackground(new Color(250, 250, 250));
@@ -91,6 +152,21 @@ public class ProductPanel extends JPanel {
         return imagePanel;
     }
     
+    private void resetImageLabel() {
+        imageLabel.setIcon(null);
+        imageLabel.setText("Loading...");
+        imageLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        imageLabel.setForeground(new Color(120, 120, 120));
+    }
+    
+    private static String nameHtml(Product product) {
+        return "<html><div style='text-align:center;'>" + product.getName() + "</div></html>";
+    }
+    
+    private static String formatPrice(Product product) {
+        return String.format("₹%.2f", product.getPrice());
+    }
+    
     private JPanel createDetailsPanel() {
         JPanel detailsPanel = new JPanel();
         detailsPanel.setLayout(new BoxLayout(detailsPanel, BoxLayout.Y_AXIS));
@@ -98,8 +174,7 @@ public class ProductPanel extends JPanel {
         detailsPanel.setBorder(new EmptyBorder(12, 0, 12, 0));
         
         // Product Name
-        JLabel nameLabel = new JLabel("<html><div style='text-align:center;'>" + 
-            product.getName() + "</div></html>");
+        nameLabel = new JLabel(nameHtml(product));
         nameLabel.setFont(new Font("Segoe UI", Font.BOLD, 15));
         nameLabel.setForeground(new Color(33, 37, 41));
         nameLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -109,7 +184,7 @@ public class ProductPanel extends JPanel {
         Component spacing = Box.createVerticalStrut(8);
         
         // Price
-        JLabel priceLabel = new JLabel(String.format("₹%.2f", product.getPrice()));
+        priceLabel = new JLabel(formatPrice(product));
         priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
         priceLabel.setForeground(new Color(40, 167, 69));
         priceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -263,28 +338,25 @@ public class ProductPanel extends JPanel {
     }
 
     private void loadAndSetImage(String imageUrl, JLabel imageLabel) {
-        SwingWorker<ImageIcon, Void> worker = new SwingWorker<>() {
-            @Override
-            protected ImageIcon doInBackground() throws Exception {
-                URL url = new URL(imageUrl);
-                ImageIcon icon = new ImageIcon(url);
-                Image scaledImage = icon.getImage().getScaledInstance(220, 220, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    ImageIcon scaledIcon = get();
-                    imageLabel.setText(null);
-                    imageLabel.setIcon(scaledIcon);
-                } catch (Exception e) {
-                    imageLabel.setText("Image not available");
-                    imageLabel.setFont(new Font("Segoe UI", Font.ITALIC, 11));
-                    imageLabel.setForeground(new Color(150, 150, 150));
-                }
+        if (imageRequest != null) imageRequest.cancel(); // No-op if it already finished
+        ImageCache.Request request = ImageCache.getInstance().request(imageUrl, IMAGE_SIZE, imagePriority);
+        imageRequest = request;
+        CompletableFuture<BufferedImage> future = request.future();
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            imageLabel.setText(null);
+            imageLabel.setIcon(new ImageIcon(future.join())); // In memory
+            return;
+        }
+        future.whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+            if (request != imageRequest) return; // Rebound or cancelled while loading
+            if (image != null) {
+                imageLabel.setText(null);
+                imageLabel.setIcon(new ImageIcon(image));
+            } else {
+                imageLabel.setText("Image not available");
+                imageLabel.setFont(new Font("Segoe UI", Font.ITALIC, 11));
+                imageLabel.setForeground(new Color(150, 150, 150));
             }
-        };
-        worker.execute();
+        }));
     }
 }
\ No newline at end of file
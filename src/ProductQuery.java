@@ -0,0 +1,70 @@
+import java.util.Comparator;
+
+/**
+ * The filters and order of one product grid query, for running it in the store
+ * instead of the client-side catalog: name search text, category ("All" for any),
+ * price range (infinite bounds for none) and sort.
+ */
+public class ProductQuery {
+    private final String searchText;
+    private final String category;
+    private final double minPrice;
+    private final double maxPrice;
+    private final ProductCatalog.SortKey sortKey;
+    private final boolean descending;
+
+    public ProductQuery(String searchText, String category, double minPrice, double maxPrice,
+                        ProductCatalog.SortKey sortKey, boolean descending) {
+        this.searchText = CatalogSearchIndex.normalize(searchText);
+        this.category = category == null ? "All" : normalizeCategory(category);
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.sortKey = sortKey;
+        this.descending = descending;
+    }
+
+    /**
+     * Every product, in id order.
+     */
+    public static ProductQuery all() {
+        return new ProductQuery("", "All", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, ProductCatalog.SortKey.ID, false);
+    }
+
+    /**
+     * How categories are stored and compared: trimmed, then matched case-insensitively.
+     * Repositories store categories through this, so the database can compare them
+     * with a plain indexed equality (its collation ignoring case) and get the same
+     * results as matches().
+     */
+    public static String normalizeCategory(String category) {
+        return category == null ? null : category.trim();
+    }
+
+    // Getters
+    public String getSearchText() { return searchText; }
+    public String getCategory() { return category; }
+    public double getMinPrice() { return minPrice; }
+    public double getMaxPrice() { return maxPrice; }
+    public ProductCatalog.SortKey getSortKey() { return sortKey; }
+    public boolean isDescending() { return descending; }
+
+    public boolean hasCategory() { return !"All".equalsIgnoreCase(category); }
+    public boolean hasMinPrice() { return minPrice > Double.NEGATIVE_INFINITY; }
+    public boolean hasMaxPrice() { return maxPrice < Double.POSITIVE_INFINITY; }
+
+    /**
+     * The order of the results; ties are broken by id, so it is total and pages can resume after any product.
+     */
+    public Comparator<Product> comparator() {
+        return descending ? sortKey.comparator().reversed() : sortKey.comparator();
+    }
+
+    /**
+     * Whether a product passes the filters, the way the client-side catalog matches them.
+     */
+    public boolean matches(Product product) {
+        return (searchText.isEmpty() || (product.getName() != null && product.getName().toLowerCase().contains(searchText)))
+            && (!hasCategory() || (product.getCategory() != null && normalizeCategory(product.getCategory()).equalsIgnoreCase(category)))
+            && product.getPrice() >= minPrice && product.getPrice() <= maxPrice;
+    }
+}
@@ -0,0 +1,61 @@
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage for the product catalog.
+ */
+public interface ProductRepository {
+
+    /**
+     * Streams every live product in id order, chunkSize products at a time.
+     * @return true if the whole catalog was read, false if an error stopped it.
+     */
+    boolean streamProducts(int chunkSize, Consumer<List<Product>> chunkConsumer);
+
+    /**
+     * Fetches every live product.
+     */
+    default List<Product> getAllProducts(int chunkSize) {
+        List<Product> products = new ArrayList<>();
+        streamProducts(chunkSize, products::addAll);
+        return products;
+    }
+
+    /**
+     * Returns one page of the products matching the query, in the query's order.
+     * Uses keyset pagination on the sort columns plus id: pass null for the first
+     * page, then the last product already shown.
+     * @return the page, or null on error.
+     */
+    List<Product> getProductsPage(ProductQuery query, Product after, int limit);
+
+    /**
+     * Counts the products matching the query (its sort is ignored) and finds their price range.
+     * @return the summary, or null on error.
+     */
+    ProductSummary getProductSummary(ProductQuery query);
+
+    /**
+     * Inserts a new product. The product's ID is ignored; the store assigns one.
+     * @return true if the insertion was successful.
+     */
+    boolean addProduct(Product product);
+
+    /**
+     * Tombstones a product so catalog sync clients learn about the deletion.
+     * @return true if a product was marked as deleted.
+     */
+    boolean deleteProduct(int productId);
+
+    /**
+     * Returns the newest change stamp in the catalog, or null on error.
+     */
+    Timestamp getCatalogSyncToken();
+
+    /**
+     * Returns the products changed or deleted at or after the given sync token, or null on error.
+     */
+    CatalogDelta getProductChangesSince(Timestamp syncToken);
+}
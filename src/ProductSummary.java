@@ -0,0 +1,20 @@
+/**
+ * Aggregate figures for the products matching a query,
+ * computed by the store rather than by loading the products.
+ */
+public class ProductSummary {
+    private final int totalProducts;
+    private final double minPrice; // 0 if nothing matched
+    private final double maxPrice;
+
+    public ProductSummary(int totalProducts, double minPrice, double maxPrice) {
+        this.totalProducts = totalProducts;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    // Getters
+    public int getTotalProducts() { return totalProducts; }
+    public double getMinPrice() { return minPrice; }
+    public double getMaxPrice() { return maxPrice; }
+}
@@ -0,0 +1,113 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded LRU cache of catalog query results.
+ * Entries are tagged with the catalog version they were computed at; the first
+ * lookup or store at a newer version drops everything, since ordinals and counts
+ * from an older catalog can't be trusted. The cache is bounded by an estimate of
+ * the bytes its entries hold (shopeasy.search.cacheBytes, default 16 MB) and evicts
+ * the least recently used entries to stay under it.
+ *
+ * Hits, misses and evictions are exposed over JMX as "shopeasy:type=QueryCache".
+ */
+public class QueryCache<V> implements QueryCacheMBean {
+
+    private static final long ENTRY_OVERHEAD_BYTES = 96; // Map node, key string, holder object
+
+    private final long maxBytes;
+    private final ToLongFunction<V> sizeOf;
+    private final LinkedHashMap<String, V> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long version = -1;
+    private long bytes;
+
+    // --- Metrics ---
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param sizeOf estimates the bytes an entry's value holds
+     */
+    public QueryCache(ToLongFunction<V> sizeOf) {
+        this(Long.getLong("shopeasy.search.cacheBytes", 16L * 1024 * 1024), sizeOf);
+    }
+
+    public QueryCache(long maxBytes, ToLongFunction<V> sizeOf) {
+        this.maxBytes = maxBytes;
+        this.sizeOf = sizeOf;
+        Metrics.register("shopeasy:type=QueryCache", this);
+    }
+
+    /**
+     * Builds a key from the parts of a query, already normalized by the caller.
+     */
+    public static String key(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (Object part : parts) {
+            sb.append(part).append('\u0000');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the cached value for the key at the given catalog version, or null.
+     */
+    public synchronized V get(String key, long catalogVersion) {
+        invalidateIfStale(catalogVersion);
+        V value = entries.get(key);
+        if (value == null) misses++;
+        else hits++;
+        return value;
+    }
+
+    /**
+     * Stores a value computed at the given catalog version, evicting as needed.
+     * A value bigger than the whole cache is not stored.
+     */
+    public synchronized void put(String key, V value, long catalogVersion) {
+        invalidateIfStale(catalogVersion);
+        long size = sizeOf.applyAsLong(value) + ENTRY_OVERHEAD_BYTES + 2L * key.length();
+        if (size > maxBytes) return;
+
+        V previous = entries.put(key, value);
+        if (previous != null) bytes -= sizeOf.applyAsLong(previous) + ENTRY_OVERHEAD_BYTES + 2L * key.length();
+        bytes += size;
+
+        Iterator<Map.Entry<String, V>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, V> entry = eldest.next();
+            bytes -= sizeOf.applyAsLong(entry.getValue()) + ENTRY_OVERHEAD_BYTES + 2L * entry.getKey().length();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private void invalidateIfStale(long catalogVersion) {
+        if (catalogVersion != version) {
+            entries.clear();
+            bytes = 0;
+            version = catalogVersion;
+        }
+    }
+
+    // --- Metrics getters ---
+    @Override public synchronized long getHits() { return hits; }
+    @Override public synchronized long getMisses() { return misses; }
+    @Override public synchronized long getEvictions() { return evictions; }
+    @Override public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+    @Override public synchronized int getEntries() { return entries.size(); }
+    @Override public synchronized long getBytes() { return bytes; }
+    @Override public long getMaxBytes() { return maxBytes; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("QueryCache[entries=%d, bytes=%d/%d, hits=%d, misses=%d, evictions=%d]",
+                entries.size(), bytes, maxBytes, hits, misses, evictions);
+    }
+}
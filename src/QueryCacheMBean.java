@@ -0,0 +1,12 @@
+/**
+ * JMX view of the catalog query cache (see QueryCache).
+ */
+public interface QueryCacheMBean {
+    long getHits();
+    long getMisses();
+    long getEvictions();
+    double getHitRatio();
+    int getEntries();
+    long getBytes();
+    long getMaxBytes();
+}
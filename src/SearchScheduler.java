@@ -0,0 +1,166 @@
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs catalog queries off the EDT and applies only the newest result.
+ *
+ * A request is a prepare step, run on the EDT to capture the current inputs, that
+ * returns the query to run on the worker thread. Typing goes through one restartable
+ * debounce timer, so a burst of keystrokes becomes one request; buttons and menus
+ * request immediately. Every request takes a new generation number, and a query whose
+ * generation is no longer the latest is dropped before it runs, after it runs, and
+ * again on the EDT just before its result would be applied.
+ *
+ * Changes to what the queries read go through update(), which runs them on the same
+ * worker, between queries. The data needs no lock and the EDT never waits behind a
+ * running query; a query sees every change made before it was requested.
+ *
+ * Latency (request to result applied) and the number of dropped queries are exposed
+ * over JMX as "shopeasy:type=SearchScheduler".
+ */
+public class SearchScheduler<R> implements SearchSchedulerMBean {
+
+    private static final int DEBOUNCE_MS = Integer.getInteger("shopeasy.search.debounceMs", 300);
+
+    private final Consumer<R> onResult;
+    private final ExecutorService worker;
+    private final Timer debounceTimer;
+    private Supplier<Callable<R>> debouncedRequest;       // EDT only
+    private final AtomicLong generation = new AtomicLong();
+    private long settledGeneration;                       // EDT only: newest generation applied, dropped or failed
+
+    // --- Metrics ---
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * @param onResult applies a query's result; called on the EDT, only for the newest query
+     */
+    public SearchScheduler(Consumer<R> onResult) {
+        this.onResult = onResult;
+        worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "catalog-search");
+            t.setDaemon(true);
+            return t;
+        });
+        debounceTimer = new Timer(DEBOUNCE_MS, e -> requestNow(debouncedRequest));
+        debounceTimer.setRepeats(false);
+        Metrics.register("shopeasy:type=SearchScheduler", this);
+    }
+
+    /**
+     * Requests a query once input has been quiet for the debounce delay.
+     * Each call restarts the delay and replaces the previous pending request.
+     */
+    public void requestDebounced(Supplier<Callable<R>> prepare) {
+        debouncedRequest = prepare;
+        debounceTimer.restart();
+    }
+
+    /**
+     * Requests a query right away, superseding any pending or running one. Call on the EDT.
+     */
+    public void requestNow(Supplier<Callable<R>> prepare) {
+        debounceTimer.stop();
+        long requestedAt = System.nanoTime();
+        long myGeneration = generation.incrementAndGet();
+        Callable<R> query = prepare.get();
+
+        worker.execute(() -> {
+            if (myGeneration != generation.get()) {
+                dropStale(myGeneration);
+                return;
+            }
+            try {
+                R result = query.call();
+                if (myGeneration != generation.get()) {
+                    dropStale(myGeneration);
+                    return;
+                }
+                SwingUtilities.invokeLater(() -> {
+                    if (myGeneration != generation.get()) {
+                        dropped.increment();
+                        settle(myGeneration);
+                        return;
+                    }
+                    onResult.accept(result);
+                    latency.record(System.nanoTime() - requestedAt);
+                    settle(myGeneration);
+                });
+            } catch (Exception e) {
+                errors.increment();
+                e.printStackTrace();
+                SwingUtilities.invokeLater(() -> settle(myGeneration));
+            }
+        });
+    }
+
+    /**
+     * Applies a change on the worker thread, after the queries already requested and
+     * before any requested later. Call on the EDT.
+     */
+    public void update(Runnable change) {
+        update(() -> {
+            change.run();
+            return null;
+        }, null);
+    }
+
+    /**
+     * Like update(Runnable), then hands the change's result to the EDT, if then isn't null.
+     * A query result posted before the change ran is applied before then is called.
+     */
+    public <T> void update(Callable<T> change, Consumer<T> then) {
+        worker.execute(() -> {
+            try {
+                T value = change.call();
+                if (then != null) SwingUtilities.invokeLater(() -> then.accept(value));
+            } catch (Exception e) {
+                errors.increment();
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void dropStale(long staleGeneration) {
+        dropped.increment();
+        SwingUtilities.invokeLater(() -> settle(staleGeneration));
+    }
+
+    private void settle(long settled) {
+        settledGeneration = Math.max(settledGeneration, settled);
+    }
+
+    /**
+     * True while a request is waiting on the debounce timer or its result has not been
+     * applied yet. Callers patching the displayed results in place should request a
+     * fresh query instead, or the pending result would overwrite their patch. Call on the EDT.
+     */
+    public boolean isBusy() {
+        return debounceTimer.isRunning() || settledGeneration < generation.get();
+    }
+
+    // --- Metrics getters ---
+    @Override public long getQueriesApplied() { return latency.getCount(); }
+    @Override public long getQueriesDropped() { return dropped.sum(); }
+    @Override public long getQueryErrors() { return errors.sum(); }
+    @Override public double getMeanMillis() { return latency.getMeanNanos() / 1e6; }
+    @Override public double getP50Millis() { return latency.getPercentileNanos(50) / 1e6; }
+    @Override public double getP95Millis() { return latency.getPercentileNanos(95) / 1e6; }
+    @Override public double getP99Millis() { return latency.getPercentileNanos(99) / 1e6; }
+    @Override public double getMaxMillis() { return latency.getMaxNanos() / 1e6; }
+
+    @Override
+    public String toString() {
+        return String.format("SearchScheduler[applied=%d, dropped=%d, errors=%d, p50=%.2fms, p95=%.2fms, max=%.2fms]",
+                getQueriesApplied(), getQueriesDropped(), getQueryErrors(), getP50Millis(), getP95Millis(), getMaxMillis());
+    }
+}
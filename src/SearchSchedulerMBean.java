@@ -0,0 +1,13 @@
+/**
+ * JMX view of the catalog search pipeline (see SearchScheduler).
+ */
+public interface SearchSchedulerMBean {
+    long getQueriesApplied();
+    long getQueriesDropped();
+    long getQueryErrors();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP95Millis();
+    double getP99Millis();
+    double getMaxMillis();
+}
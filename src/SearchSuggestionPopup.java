@@ -0,0 +1,170 @@
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Suggestion dropdown shown under a search field as the user types.
+ * Up/Down move through the list, Enter or a click picks a suggestion, Escape closes it.
+ * Key events the popup handles are consumed (press and release), so listeners added
+ * to the field afterwards can tell they have already been dealt with.
+ */
+public class SearchSuggestionPopup {
+
+    private final JTextField field;
+    private final Function<String, List<AutocompleteTrie.Suggestion>> source;
+    private final Consumer<AutocompleteTrie.Suggestion> onSelect;
+    private final JPopupMenu popup = new JPopupMenu();
+    private final JList<AutocompleteTrie.Suggestion> list = new JList<>();
+    private boolean suppressUpdates;
+    private int swallowReleaseOf = KeyEvent.VK_UNDEFINED;
+
+    /**
+     * Attaches the popup to the field. Must be called before the field's own key
+     * listeners are added, so the popup sees keys first.
+     */
+    public SearchSuggestionPopup(JTextField field,
+                                 Function<String, List<AutocompleteTrie.Suggestion>> source,
+                                 Consumer<AutocompleteTrie.Suggestion> onSelect) {
+        this.field = field;
+        this.source = source;
+        this.onSelect = onSelect;
+
+        list.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        list.setFocusable(false);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setCellRenderer(new SuggestionRenderer());
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (index >= 0) select(list.getModel().getElementAt(index));
+            }
+        });
+        list.addMouseMotionListener(new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                list.setSelectedIndex(list.locationToIndex(e.getPoint()));
+            }
+        });
+
+        popup.setFocusable(false);
+        popup.setBorder(BorderFactory.createLineBorder(new Color(206, 212, 218)));
+        popup.add(list);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { scheduleUpdate(); }
+            public void removeUpdate(DocumentEvent e) { scheduleUpdate(); }
+            public void changedUpdate(DocumentEvent e) {}
+        });
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) { handleKeyPressed(e); }
+            @Override
+            public void keyReleased(KeyEvent e) {
+                if (e.getKeyCode() == swallowReleaseOf) {
+                    swallowReleaseOf = KeyEvent.VK_UNDEFINED;
+                    e.consume();
+                }
+            }
+        });
+        field.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) { hide(); }
+        });
+    }
+
+    private void scheduleUpdate() {
+        if (suppressUpdates) return;
+        // Document listeners run mid-edit; look at the text once the edit is done
+        SwingUtilities.invokeLater(this::updateSuggestions);
+    }
+
+    private void updateSuggestions() {
+        if (suppressUpdates || !field.isFocusOwner()) {
+            hide();
+            return;
+        }
+        List<AutocompleteTrie.Suggestion> suggestions = source.apply(field.getText());
+        if (suggestions.isEmpty()) {
+            hide();
+            return;
+        }
+        list.setListData(suggestions.toArray(new AutocompleteTrie.Suggestion[0]));
+        list.clearSelection();
+        list.setVisibleRowCount(suggestions.size());
+        popup.setPopupSize(field.getParent().getWidth(), list.getPreferredScrollableViewportSize().height + 2);
+        popup.show(field, 0, field.getHeight());
+        field.requestFocusInWindow();
+    }
+
+    private void handleKeyPressed(KeyEvent e) {
+        if (!popup.isVisible()) return;
+        int size = list.getModel().getSize();
+        int index = list.getSelectedIndex();
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_DOWN:
+                list.setSelectedIndex(index + 1 < size ? index + 1 : 0);
+                break;
+            case KeyEvent.VK_UP:
+                list.setSelectedIndex(index > 0 ? index - 1 : size - 1);
+                break;
+            case KeyEvent.VK_ESCAPE:
+                hide();
+                break;
+            case KeyEvent.VK_ENTER:
+                if (index < 0) return; // Nothing highlighted: let the field search as typed
+                select(list.getSelectedValue());
+                break;
+            default:
+                return;
+        }
+        swallowReleaseOf = e.getKeyCode();
+        e.consume();
+    }
+
+    private void select(AutocompleteTrie.Suggestion suggestion) {
+        hide();
+        suppressUpdates = true;
+        try {
+            onSelect.accept(suggestion);
+        } finally {
+            suppressUpdates = false;
+        }
+    }
+
+    public void hide() {
+        popup.setVisible(false);
+    }
+
+    /**
+     * Shows the suggestion text, with categories marked as such.
+     */
+    private static class SuggestionRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            AutocompleteTrie.Suggestion suggestion = (AutocompleteTrie.Suggestion) value;
+            if (suggestion.isCategory()) {
+                setText("<html>" + escape(suggestion.getText()) + " <font color='#6c757d'>in Categories</font></html>");
+            }
+            setBorder(new EmptyBorder(5, 10, 5, 10));
+            return this;
+        }
+
+        private static String escape(String text) {
+            return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
+}
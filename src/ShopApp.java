@@ -7,14 +7,24 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.swing.Timer;
 
 public class ShopApp {
-    private List<Product> allProducts = new ArrayList<>();
-    private List<Product> filteredProducts;
-    private JPanel productListPanel;
+    private static final int REMOTE_PAGE_SIZE = 100;
+    private static final int LOAD_MORE_THRESHOLD_PX = 600;
+    private static final int COUNT_UNKNOWN = -1; // Remote name searches aren't counted up front
+    
+    private final ProductCatalog catalog = new ProductCatalog(); // Only touched on the search worker, via searchScheduler.update
+    private boolean catalogEmpty = true; // The EDT's view of the catalog
+    private volatile java.sql.Timestamp catalogSyncToken; // Set by loader threads, read on the EDT
+    private List<Product> filteredProducts = new ArrayList<>();
+    private boolean showingCloseMatches; // Nothing contained the search text; showing typo-tolerant matches
+    private boolean requeryAfterResult; // The catalog changed while a query was pending
+    private final SearchScheduler<ProductCatalog.QueryResult> searchScheduler = new SearchScheduler<>(this::showQueryResult);
+    private VirtualProductGrid productGrid;
     private final Cart cart;
     public final JFrame frame;
     private CartPage cartPage;
@@ -22,10 +32,35 @@ public class ShopApp {
     private JComboBox<String> sortComboBox;
     private JLabel resultCountLabel;
     private ButtonGroup categoryButtonGroup;
+    private Map<String, Integer> categoryCounts = Collections.emptyMap(); // Search matches per category
+    private int searchMatchCount;
+    private PriceRangeFilter priceFilter;
+    private JLabel priceRangeLabel;
+    private int[] priceBuckets = new int[ProductCatalog.PRICE_BUCKETS];
+    private double histogramMin;
+    private double histogramMax;
     private final User currentUser;
+    private AutocompleteTrie autocomplete; // Updated in place on catalog deltas, rebuilt off the EDT on reloads
+    private boolean autocompleteBuilding;
+    private boolean autocompleteRebuildPending; // Asked for while a build was running; one more build covers them all
+    private List<Consumer<AutocompleteTrie>> autocompleteReplay; // Changes since the running build's snapshot
+    private final Map<String, Integer> suggestionSelections = new HashMap<>();
+    // Remote mode: the catalog is too large to load, so the store filters, sorts and pages it
+    private boolean remoteCatalog;
+    private ProductQuery remoteQuery; // The query behind the products shown
+    private boolean loadingRemotePage;
 
     public void addNewProduct(Product product) {
-        this.allProducts.add(product);
+        if (remoteCatalog) {
+            applyFilters();
+            return;
+        }
+        searchScheduler.update(() -> {
+            Product old = catalog.getById(product.getId());
+            catalog.put(product);
+            return old;
+        }, old -> updateAutocomplete(old == null ? List.of() : List.of(old), List.of(product)));
+        catalogEmpty = false;
         applyFilters();
     }
 
@@ -114,13 +149,15 @@ public class ShopApp {
             }
         });
         
+        // Added before the key listener below so it sees (and consumes) its keys first
+        new SearchSuggestionPopup(searchField, this::getSuggestions, this::applySuggestion);
+        
         searchField.addKeyListener(new KeyListener() {
             public void keyTyped(KeyEvent e) {}
-            public void keyPressed(KeyEvent e) { if (e.getKeyCode() == KeyEvent.VK_ENTER) applyFilters(); }
+            public void keyPressed(KeyEvent e) { if (e.getKeyCode() == KeyEvent.VK_ENTER && !e.isConsumed()) applyFilters(); }
             public void keyReleased(KeyEvent e) {
-                Timer timer = new Timer(300, ev -> applyFilters());
-                timer.setRepeats(false);
-                timer.start();
+                if (e.isConsumed()) return; // Handled by the suggestion popup
+                searchScheduler.requestDebounced(ShopApp.this::prepareCurrentQuery);
             }
         });
         
@@ -212,6 +249,7 @@ public class ShopApp {
         for (int i = 0; i < categories.length; i++) {
             String category = categories[i];
             JToggleButton filterBtn = createFilterButton(category, i == 0);
+            filterBtn.setActionCommand(category); // The label also carries the count
             categoryButtonGroup.add(filterBtn);
             filterButtonsPanel.add(filterBtn);
             filterBtn.addActionListener(e -> filterProducts(category));
@@ -234,9 +272,29 @@ public class ShopApp {
         rightSortPanel.add(sortLabel);
         rightSortPanel.add(sortComboBox);
         
+        JPanel pricePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 8, 0));
+        pricePanel.setOpaque(false);
+        pricePanel.setBorder(new EmptyBorder(10, 0, 0, 0));
+        
+        JLabel priceLabel = new JLabel("Price:");
+        priceLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        priceLabel.setForeground(new Color(73, 80, 87));
+        
+        priceFilter = new PriceRangeFilter();
+        priceFilter.addChangeListener(e -> applyFilters());
+        
+        priceRangeLabel = new JLabel("Any price");
+        priceRangeLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        priceRangeLabel.setForeground(new Color(108, 117, 125));
+        
+        pricePanel.add(priceLabel);
+        pricePanel.add(priceFilter);
+        pricePanel.add(priceRangeLabel);
+        
         filterContainer.add(resultCountLabel, BorderLayout.WEST);
         filterContainer.add(filterButtonsPanel, BorderLayout.CENTER);
         filterContainer.add(rightSortPanel, BorderLayout.EAST);
+        filterContainer.add(pricePanel, BorderLayout.SOUTH);
         
         return filterContainer;
     }
@@ -246,13 +304,12 @@ public class ShopApp {
         button.setFont(new Font("Segoe UI", Font.PLAIN, 13));
         button.setFocusPainted(false);
         button.setCursor(new Cursor(Cursor.HAND_CURSOR));
-        button.setPreferredSize(new Dimension(85, 30));
         
         // --- FIX 2: Add setOpaque(true) to prevent button from disappearing ---
         button.setOpaque(true);
         
         button.setBorderPainted(false); 
-        button.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10)); 
+        button.setBorder(BorderFactory.createEmptyBorder(7, 12, 7, 12)); // No fixed size: the label grows with its count
         
         if (selected) {
             button.setSelected(true);
@@ -291,100 +348,390 @@ public class ShopApp {
         JPanel mainContainer = new JPanel(new BorderLayout());
         mainContainer.setBackground(new Color(248, 249, 250));
         
-        productListPanel = new JPanel();
-        productListPanel.setLayout(new GridLayout(0, 4, 20, 20));
-        productListPanel.setBackground(new Color(248, 249, 250));
-        productListPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
+        // Only the rows on screen get ProductPanels, however many products match
+        productGrid = new VirtualProductGrid(cart, this::updateAllProductPanels);
         
-        JScrollPane scrollPane = new JScrollPane(productListPanel);
+        JScrollPane scrollPane = new JScrollPane(productGrid);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setBorder(null);
-        scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        
+        // In remote mode, fetch the next page in the background once the user scrolls near the bottom
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        scrollBar.addAdjustmentListener(e -> {
+            int distanceToBottom = scrollBar.getMaximum() - (scrollBar.getValue() + scrollBar.getVisibleAmount());
+            if (remoteCatalog && distanceToBottom < LOAD_MORE_THRESHOLD_PX) {
+                loadNextRemotePage();
+            }
+        });
         
         mainContainer.add(scrollPane, BorderLayout.CENTER);
         return mainContainer;
     }
     
+    private List<AutocompleteTrie.Suggestion> getSuggestions(String text) {
+        if (autocomplete == null || text.equals("Search products...")) return Collections.emptyList();
+        return autocomplete.complete(text);
+    }
+    
+    /**
+     * Runs the one filter a picked suggestion stands for: a category suggestion selects
+     * that category with an empty search, a name suggestion searches for that name.
+     */
+    private void applySuggestion(AutocompleteTrie.Suggestion suggestion) {
+        autocomplete.recordSelection(suggestion);
+        suggestionSelections.merge(suggestion.getKey(), 1, Integer::sum);
+        if (autocompleteReplay != null) autocompleteReplay.add(trie -> trie.recordSelection(suggestion));
+        
+        searchField.setForeground(Color.BLACK);
+        if (suggestion.isCategory()) {
+            searchField.setText("");
+            for (Enumeration<AbstractButton> buttons = categoryButtonGroup.getElements(); buttons.hasMoreElements();) {
+                AbstractButton button = buttons.nextElement();
+                if (button.getActionCommand().equalsIgnoreCase(suggestion.getText())) {
+                    button.setSelected(true);
+                }
+            }
+        } else {
+            searchField.setText(suggestion.getText());
+        }
+        applyFilters();
+    }
+    
+    /**
+     * Rebuilds the suggestion trie from a snapshot of the catalog, taken on the search
+     * worker. One build runs at a time: requests made meanwhile are coalesced into a
+     * single build after it. Changes that reach the EDT after the snapshot are replayed
+     * onto the new trie, since the snapshot doesn't have them.
+     */
+    private void rebuildAutocomplete() {
+        if (autocompleteBuilding) {
+            autocompleteRebuildPending = true;
+            return;
+        }
+        autocompleteBuilding = true;
+        searchScheduler.update(catalog::getAll, snapshot -> {
+            // Every change the snapshot holds has reached the EDT by now, and none after it
+            Map<String, Integer> selections = new HashMap<>(suggestionSelections);
+            List<Consumer<AutocompleteTrie>> replay = new ArrayList<>();
+            autocompleteReplay = replay;
+            SwingWorker<AutocompleteTrie, Void> worker = new SwingWorker<>() {
+                @Override
+                protected AutocompleteTrie doInBackground() {
+                    return AutocompleteTrie.build(snapshot, selections);
+                }
+
+                @Override
+                protected void done() {
+                    try {
+                        AutocompleteTrie built = get();
+                        for (Consumer<AutocompleteTrie> change : replay) {
+                            change.accept(built);
+                        }
+                        autocomplete = built;
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        autocompleteReplay = null;
+                        autocompleteBuilding = false;
+                        if (autocompleteRebuildPending) {
+                            autocompleteRebuildPending = false;
+                            rebuildAutocomplete();
+                        }
+                    }
+                }
+            };
+            worker.execute();
+        });
+    }
+
+    /**
+     * Patches products the catalog has just replaced into the suggestions, without a rebuild.
+     */
+    private void updateAutocomplete(Collection<Product> removed, Collection<Product> added) {
+        if (autocompleteReplay != null) autocompleteReplay.add(trie -> trie.update(removed, added));
+        if (autocomplete != null && autocomplete.update(removed, added) && !autocompleteBuilding) {
+            rebuildAutocomplete();
+        }
+    }
+    
     private void filterProducts(String category) {
         applyFilters();
     }
     
+    /**
+     * Re-runs the current filters in the background; the grid updates when the result
+     * arrives, unless a newer request has superseded it by then.
+     */
     private void applyFilters() {
-        if (allProducts.isEmpty()) return;
-        
-        String searchText = searchField.getText().toLowerCase().trim();
-        if (searchText.equals("search products...")) {
-            searchText = "";
+        if (remoteCatalog) {
+            searchScheduler.requestNow(this::prepareRemoteQuery);
+            return;
         }
+        if (catalogEmpty) return;
+        searchScheduler.requestNow(this::prepareQuery);
+    }
+    
+    /**
+     * The query for the current filters, against the loaded catalog or, in remote mode, the database.
+     */
+    private Callable<ProductCatalog.QueryResult> prepareCurrentQuery() {
+        return remoteCatalog ? prepareRemoteQuery() : prepareQuery();
+    }
+    
+    /**
+     * Captures the filter inputs on the EDT and returns the catalog query for the search worker.
+     */
+    private Callable<ProductCatalog.QueryResult> prepareQuery() {
+        String searchText = getSearchText();
         String selectedSort = (String) sortComboBox.getSelectedItem();
+        String selectedCategory = getSelectedCategory();
+        double minPrice = priceFilter.getLow();
+        double maxPrice = priceFilter.getHigh();
         
-        String selectedCategory = "All";
+        // Matched by the search index and ordered by the catalog's precomputed sort orders
+        return () -> catalog.query(searchText, selectedCategory, minPrice, maxPrice,
+                getSortKey(selectedSort), isDescendingSort(selectedSort));
+    }
+    
+    /**
+     * The remote-mode counterpart of prepareQuery: the store counts the matches and
+     * returns the first page. Facets aren't counted; the price slider keeps the
+     * catalog's full price range. Name searches aren't counted either: matching the
+     * text inside names can't use an index, so a count would scan the whole table on
+     * every keystroke. Their total is known once paging reaches a short page.
+     */
+    private Callable<ProductCatalog.QueryResult> prepareRemoteQuery() {
+        String selectedSort = (String) sortComboBox.getSelectedItem();
+        ProductQuery query = new ProductQuery(getSearchText(), getSelectedCategory(), priceFilter.getLow(), priceFilter.getHigh(),
+                getSortKey(selectedSort), isDescendingSort(selectedSort));
+        remoteQuery = query;
+        double lowest = histogramMin;
+        double highest = histogramMax;
+        
+        return () -> {
+            List<Product> firstPage = DBManager.getProductsPage(query, null, REMOTE_PAGE_SIZE);
+            if (firstPage == null) {
+                throw new IllegalStateException("Products could not be loaded from the database");
+            }
+            int total = firstPage.size() < REMOTE_PAGE_SIZE ? firstPage.size() : COUNT_UNKNOWN;
+            if (total == COUNT_UNKNOWN && query.getSearchText().isEmpty()) {
+                ProductSummary summary = DBManager.getProductSummary(query);
+                if (summary == null) {
+                    throw new IllegalStateException("Products could not be counted in the database");
+                }
+                total = summary.getTotalProducts();
+            }
+            return new ProductCatalog.QueryResult(query.getCategory(), false, firstPage, total,
+                    Collections.emptyMap(), new int[ProductCatalog.PRICE_BUCKETS], lowest, highest);
+        };
+    }
+    
+    /**
+     * Appends the next page of the remote query's results to the grid. Keyset paging
+     * resumes after the last product shown, so a page is dropped if the query or the
+     * grid changed while it was loading.
+     */
+    private void loadNextRemotePage() {
+        boolean morePages = searchMatchCount == COUNT_UNKNOWN || filteredProducts.size() < searchMatchCount;
+        if (loadingRemotePage || filteredProducts.isEmpty() || !morePages || searchScheduler.isBusy()) return;
+        loadingRemotePage = true;
+        
+        ProductQuery query = remoteQuery;
+        Product after = filteredProducts.get(filteredProducts.size() - 1);
+        SwingWorker<List<Product>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected List<Product> doInBackground() throws Exception {
+                return DBManager.getProductsPage(query, after, REMOTE_PAGE_SIZE);
+            }
+            
+            @Override
+            protected void done() {
+                loadingRemotePage = false;
+                try {
+                    List<Product> page = get();
+                    if (page == null || query != remoteQuery || filteredProducts.isEmpty()
+                            || filteredProducts.get(filteredProducts.size() - 1) != after) return;
+                    if (page.size() < REMOTE_PAGE_SIZE) {
+                        searchMatchCount = filteredProducts.size() + page.size(); // Last page: uncounted search, or rows deleted since the count
+                    }
+                    filteredProducts.addAll(page);
+                    productGrid.setProducts(filteredProducts);
+                    updateResultCount(query.getCategory());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private void showQueryResult(ProductCatalog.QueryResult result) {
+        filteredProducts = result.getProducts();
+        showingCloseMatches = result.isFuzzy();
+        categoryCounts = result.getCategoryCounts();
+        searchMatchCount = result.getSearchMatchCount();
+        priceBuckets = result.getPriceBuckets();
+        histogramMin = result.getMinPrice();
+        histogramMax = result.getMaxPrice();
+        updateProductDisplay();
+        updateResultCount(result.getCategory());
+        updateFacets();
+        if (requeryAfterResult) {
+            requeryAfterResult = false;
+            applyFilters();
+        }
+    }
+    
+    /**
+     * Re-runs the query after a catalog change. If one is already pending, a new request
+     * would supersede it and push its result back, so while chunks keep streaming in the
+     * first results would never show. Instead it is re-run once, after that result is shown.
+     */
+    private void requery() {
+        if (searchScheduler.isBusy()) {
+            requeryAfterResult = true;
+            return;
+        }
+        applyFilters();
+    }
+    
+    private String getSearchText() {
+        String searchText = searchField.getText().toLowerCase().trim();
+        return searchText.equals("search products...") ? "" : searchText;
+    }
+    
+    private String getSelectedCategory() {
         for (Enumeration<AbstractButton> buttons = categoryButtonGroup.getElements(); buttons.hasMoreElements();) {
             AbstractButton button = buttons.nextElement();
             if (button.isSelected()) {
-                selectedCategory = button.getText();
-                break;
+                return button.getActionCommand();
             }
         }
-
-        Stream<Product> productStream = allProducts.stream();
-
-        final String searchTextForFilter = searchText;
-        productStream = productStream.filter(p ->
-            p.getName().toLowerCase().contains(searchTextForFilter)
-        );
-
-        final String categoryForFilter = selectedCategory;
-
-        if (!"All".equalsIgnoreCase(categoryForFilter)) {
-            productStream = productStream.filter(p ->
-                // --- FIX 3: Add .trim() to handle whitespace in database data ---
-                p.getCategory() != null && p.getCategory().trim().equalsIgnoreCase(categoryForFilter)
-            );
+        return "All";
+    }
+    
+    private static boolean matchesFilters(Product p, String searchText, String category) {
+        return p.getName().toLowerCase().contains(searchText) && matchesCategory(p, category);
+    }
+    
+    private boolean matchesPrice(Product p) {
+        return p.getPrice() >= priceFilter.getLow() && p.getPrice() <= priceFilter.getHigh();
+    }
+    
+    private static boolean matchesCategory(Product p, String category) {
+        // --- FIX 3: Add .trim() to handle whitespace in database data ---
+        return "All".equalsIgnoreCase(category)
+            || (p.getCategory() != null && p.getCategory().trim().equalsIgnoreCase(category));
+    }
+    
+    /**
+     * Adds a freshly streamed chunk of products to the catalog. With the default
+     * (id) sort, chunks arrive already in display order, so matching products are
+     * appended to the grid without rebuilding the panels that are already there.
+     * While a search is pending the grid is about to be replaced, and close matches are
+     * ranked by distance, so in those cases it is re-queried instead (see requery()).
+     * The chunk reaches the catalog on the search worker, ahead of any later query.
+     */
+    private void appendProducts(List<Product> chunk) {
+        boolean firstChunk = catalogEmpty;
+        searchScheduler.update(() -> catalog.putAll(chunk));
+        catalogEmpty = catalogEmpty && chunk.isEmpty();
+        if (firstChunk || !"Default".equals(sortComboBox.getSelectedItem()) || searchScheduler.isBusy() || showingCloseMatches) {
+            requery();
+            return;
         }
-
-        filteredProducts = productStream.collect(Collectors.toList());
         
-        sortProducts(selectedSort);
-        updateProductDisplay();
+        String searchText = getSearchText();
+        String selectedCategory = getSelectedCategory();
+        List<Product> matching = chunk.stream()
+            .filter(p -> matchesFilters(p, searchText, selectedCategory) && matchesPrice(p))
+            .collect(Collectors.toList());
+        countFacets(chunk, searchText, selectedCategory, 1);
+        
+        if (!matching.isEmpty()) {
+            filteredProducts.addAll(matching);
+            productGrid.setProducts(filteredProducts);
+        }
         updateResultCount(selectedCategory);
+        updateFacets();
+    }
+    
+    /**
+     * Adds (delta 1) or takes away (delta -1) the given products' share of the facet
+     * counts: the price histogram for those matching the search and category, the
+     * category counts for those matching the search and price range. The histogram
+     * keeps its bucket bounds until the next full query; prices outside them count
+     * towards the end buckets.
+     */
+    private void countFacets(Collection<Product> products, String searchText, String category, int delta) {
+        Map<String, Integer> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        counts.putAll(categoryCounts);
+        priceBuckets = priceBuckets.clone();
+        for (Product product : products) {
+            if (!matchesFilters(product, searchText, "All")) continue;
+            if (matchesCategory(product, category)) {
+                priceBuckets[ProductCatalog.priceBucket(product.getPrice(), histogramMin, histogramMax)] += delta;
+            }
+            if (!matchesPrice(product)) continue;
+            searchMatchCount += delta;
+            if (product.getCategory() != null && !product.getCategory().isBlank()) {
+                counts.merge(product.getCategory().trim(), delta, Integer::sum);
+            }
+        }
+        categoryCounts = counts;
+    }
+    
+    /**
+     * Shows the current facet counts: matches on each category button, e.g.
+     * "Electronics (42)", and matches per price bucket on the price filter.
+     */
+    private void updateFacets() {
+        for (Enumeration<AbstractButton> buttons = categoryButtonGroup.getElements(); buttons.hasMoreElements();) {
+            AbstractButton button = buttons.nextElement();
+            String category = button.getActionCommand();
+            if (remoteCatalog) {
+                button.setText(category); // Not counted in remote mode
+                continue;
+            }
+            int count = "All".equalsIgnoreCase(category) ? searchMatchCount : categoryCounts.getOrDefault(category, 0);
+            button.setText(category + " (" + count + ")");
+        }
+        priceFilter.setHistogram(priceBuckets, histogramMin, histogramMax);
+        priceRangeLabel.setText(priceFilter.isFullRange() ? "Any price" : priceFilter.getRangeText());
     }
 
-    private void sortProducts(String sortOption) {
+    private static ProductCatalog.SortKey getSortKey(String sortOption) {
         switch (sortOption) {
-            case "Price: Low to High": filteredProducts.sort(Comparator.comparingDouble(Product::getPrice)); break;
-            case "Price: High to Low": filteredProducts.sort(Comparator.comparingDouble(Product::getPrice).reversed()); break;
-            case "Name: A to Z": filteredProducts.sort(Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER)); break;
-            case "Name: Z to A": filteredProducts.sort(Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER).reversed()); break;
-            default: filteredProducts.sort(Comparator.comparingInt(Product::getId)); break;
+            case "Price: Low to High":
+            case "Price: High to Low": return ProductCatalog.SortKey.PRICE;
+            case "Name: A to Z":
+            case "Name: Z to A": return ProductCatalog.SortKey.NAME;
+            default: return ProductCatalog.SortKey.ID;
         }
     }
+    
+    private static boolean isDescendingSort(String sortOption) {
+        return "Price: High to Low".equals(sortOption) || "Name: Z to A".equals(sortOption);
+    }
+    
+    /**
+     * The same order the catalog sorts in, for placing single products into an already sorted list.
+     */
+    private static Comparator<Product> getSortComparator(String sortOption) {
+        Comparator<Product> comparator = getSortKey(sortOption).comparator();
+        return isDescendingSort(sortOption) ? comparator.reversed() : comparator;
+    }
 
+    /**
+     * Shows the current result list. The grid only rebinds the cells on screen.
+     */
     private void updateProductDisplay() {
-        productListPanel.removeAll();
-        if (filteredProducts.isEmpty()) {
-            productListPanel.setLayout(new BorderLayout());
-            JLabel noResultsLabel = new JLabel("😥 No products found.", SwingConstants.CENTER);
-            noResultsLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
-            noResultsLabel.setForeground(Color.GRAY);
-            productListPanel.add(noResultsLabel, BorderLayout.CENTER);
-        } else {
-            productListPanel.setLayout(new GridLayout(0, 4, 20, 20)); // Reset layout
-            for (Product product : filteredProducts) {
-                productListPanel.add(new ProductPanel(product, cart, this::updateAllProductPanels));
-            }
-        }
-        productListPanel.revalidate();
-        productListPanel.repaint();
+        productGrid.setProducts(filteredProducts);
     }
     
     public void updateAllProductPanels() {
-        for (Component comp : productListPanel.getComponents()) {
-            if (comp instanceof ProductPanel) {
-                ((ProductPanel) comp).updateButtonState();
-            }
-        }
+        productGrid.updateButtonStates();
         if (cartPage != null && cartPage.isVisible()) {
             cartPage.updateCartDisplay();
         }
@@ -393,6 +740,18 @@ public class ShopApp {
     private void updateResultCount(String category) {
         int count = filteredProducts.size();
         String categoryText = "All".equalsIgnoreCase(category) ? "all products" : "in " + category;
+        if (remoteCatalog && searchMatchCount == COUNT_UNKNOWN) {
+            resultCountLabel.setText("Showing " + count + "+ product(s) " + categoryText);
+            return;
+        }
+        if (remoteCatalog && count < searchMatchCount) {
+            resultCountLabel.setText("Showing " + count + " of " + searchMatchCount + " product(s) " + categoryText);
+            return;
+        }
+        if (showingCloseMatches) {
+            resultCountLabel.setText("No exact matches. Showing " + count + " close match(es) " + ("All".equalsIgnoreCase(category) ? "" : categoryText));
+            return;
+        }
         resultCountLabel.setText("Showing " + count + " product(s) " + categoryText);
     }
     
@@ -401,35 +760,75 @@ public class ShopApp {
     }
     
     public void focusOnProduct(Product productToFind) {
-        for (Component comp : productListPanel.getComponents()) {
-            if (comp instanceof ProductPanel) {
-                ProductPanel panel = (ProductPanel) comp;
-                if (panel.getProductId() == productToFind.getId()) {
-                    Rectangle bounds = panel.getBounds();
-                    productListPanel.scrollRectToVisible(bounds);
-                    panel.setBorder(BorderFactory.createLineBorder(Color.BLUE, 3));
-                    Timer timer = new Timer(2000, e -> panel.setBorder(BorderFactory.createLineBorder(new Color(222, 226, 230), 1)));
-                    timer.setRepeats(false);
-                    timer.start();
-                    break;
-                }
-            }
+        for (int i = 0; i < filteredProducts.size(); i++) {
+            if (filteredProducts.get(i).getId() != productToFind.getId()) continue;
+            // Scrolling lays the grid out, which creates the product's cell
+            productGrid.scrollRectToVisible(productGrid.cellBounds(i));
+            ProductPanel panel = productGrid.cellFor(productToFind.getId());
+            if (panel == null) return;
+            panel.setBorder(BorderFactory.createLineBorder(Color.BLUE, 3));
+            Timer timer = new Timer(2000, e -> panel.setBorder(BorderFactory.createLineBorder(new Color(222, 226, 230), 1)));
+            timer.setRepeats(false);
+            timer.start();
+            return;
         }
     }
     
     
+    /**
+     * Pulls only the products changed since the last sync and patches them into
+     * the catalog and the grid. Falls back to a full reload if there is no sync token yet.
+     */
     public void refreshProductsFromDB() {
+        if (remoteCatalog) {
+            applyFilters(); // Every remote query already reads the current table
+            return;
+        }
+        if (catalogSyncToken == null) {
+            reloadAllProducts();
+            return;
+        }
+        java.sql.Timestamp since = catalogSyncToken;
+        SwingWorker<CatalogDelta, Void> worker = new SwingWorker<>() {
+            @Override
+            protected CatalogDelta doInBackground() throws Exception {
+                return DBManager.getProductChangesSince(since);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    CatalogDelta delta = get();
+                    if (delta == null) {
+                        throw new IllegalStateException("Catalog delta could not be loaded");
+                    }
+                    catalogSyncToken = delta.getSyncToken();
+                    mergeCatalogDelta(delta);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(frame, "Failed to refresh products from the database.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private void reloadAllProducts() {
         SwingWorker<List<Product>, Void> worker = new SwingWorker<>() {
             @Override
             protected List<Product> doInBackground() throws Exception {
+                catalogSyncToken = DBManager.getCatalogSyncToken();
                 return DBManager.getAllProducts();
             }
 
             @Override
             protected void done() {
                 try {
-                    allProducts = get();
-                    applyFilters();
+                    List<Product> products = get();
+                    searchScheduler.update(catalog::clear);
+                    catalogEmpty = true;
+                    appendProducts(products);
+                    rebuildAutocomplete();
                 } catch (Exception e) {
                     e.printStackTrace();
                     JOptionPane.showMessageDialog(frame, "Failed to refresh products from the database.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -439,18 +838,78 @@ public class ShopApp {
         worker.execute();
     }
     
+    /**
+     * Applies a catalog delta in place: the catalog and its indexes are patched per product
+     * on the search worker, then only the panels of changed products are removed or
+     * inserted in the grid.
+     */
+    private void mergeCatalogDelta(CatalogDelta delta) {
+        if (delta.isEmpty()) return;
+        
+        Set<Integer> changedIds = new HashSet<>(delta.getDeletedProductIds());
+        for (Product product : delta.getChangedProducts()) {
+            changedIds.add(product.getId());
+        }
+        
+        searchScheduler.update(() -> {
+            // Hand the old versions back, to take them out of the facet counts
+            List<Product> replaced = new ArrayList<>();
+            for (int id : changedIds) {
+                Product old = catalog.getById(id);
+                if (old != null) replaced.add(old);
+            }
+            for (int id : delta.getDeletedProductIds()) {
+                catalog.remove(id);
+            }
+            catalog.putAll(delta.getChangedProducts());
+            return replaced;
+        }, replaced -> {
+            patchProductDisplay(delta, changedIds, replaced);
+            updateAutocomplete(replaced, delta.getChangedProducts());
+        });
+        catalogEmpty = catalogEmpty && delta.getChangedProducts().isEmpty();
+    }
+    
+    /**
+     * Patches a delta the catalog has applied into the shown results, unless a pending
+     * query is about to replace them.
+     */
+    private void patchProductDisplay(CatalogDelta delta, Set<Integer> changedIds, List<Product> replaced) {
+        if (filteredProducts.isEmpty() || searchScheduler.isBusy() || showingCloseMatches) {
+            requery();
+            return;
+        }
+        
+        String searchText = getSearchText();
+        String selectedCategory = getSelectedCategory();
+        Comparator<Product> comparator = getSortComparator((String) sortComboBox.getSelectedItem());
+        countFacets(replaced, searchText, selectedCategory, -1);
+        countFacets(delta.getChangedProducts(), searchText, selectedCategory, 1);
+        
+        filteredProducts.removeIf(p -> changedIds.contains(p.getId()));
+        for (Product product : delta.getChangedProducts()) {
+            if (!matchesFilters(product, searchText, selectedCategory) || !matchesPrice(product)) continue;
+            int insertAt = Collections.binarySearch(filteredProducts, product, comparator);
+            if (insertAt < 0) insertAt = -insertAt - 1;
+            filteredProducts.add(insertAt, product);
+        }
+        productGrid.setProducts(filteredProducts); // Keeps the scroll position
+        updateResultCount(selectedCategory);
+        updateFacets();
+    }
+    
     public void simulatePayment() {
         Runnable paymentTask = () -> {
             try {
                 Thread.sleep(2500); 
                 
+                boolean success = Math.random() < 0.9; 
+                Order newOrder = success ? new Order(cart.getItems(), cart.getTotal()) : null;
+                // Wait off the EDT while the order writer commits this order with its batch
+                boolean saved = success && DBManager.saveOrderAsync(currentUser, newOrder).join();
+                
                 SwingUtilities.invokeLater(() -> {
-                    boolean success = Math.random() < 0.9; 
-                    
                     if (success) {
-                        Order newOrder = new Order(cart.getItems(), cart.getTotal());
-                        boolean saved = DBManager.saveOrder(currentUser, newOrder);
-                        
                         if (!saved) {
                            JOptionPane.showMessageDialog(frame, "Critical Error: Payment succeeded but order could not be saved.", "Save Error", JOptionPane.ERROR_MESSAGE);
                            return;
@@ -488,24 +947,60 @@ public class ShopApp {
         loadingDialog.pack();
         loadingDialog.setLocationRelativeTo(null);
         
-        SwingWorker<List<Product>, Void> worker = new SwingWorker<>() {
+        // Products are published chunk by chunk so the grid paints after the first chunk
+        SwingWorker<Boolean, List<Product>> worker = new SwingWorker<>() {
+            private boolean layoutReady;
+            private ProductSummary remoteSummary; // Set if the catalog is too large to load
+            
             @Override
-            protected List<Product> doInBackground() throws Exception {
-                return DBManager.getAllProducts();
+            protected Boolean doInBackground() throws Exception {
+                ProductSummary summary = DBManager.getProductSummary(ProductQuery.all());
+                if (summary != null && summary.getTotalProducts() > DBManager.CATALOG_REMOTE_THRESHOLD) {
+                    remoteSummary = summary;
+                    return true;
+                }
+                // Taken before the scan, so anything written while streaming is picked up by the next delta
+                catalogSyncToken = DBManager.getCatalogSyncToken();
+                return DBManager.streamProducts(DBManager.CATALOG_CHUNK_SIZE, this::publish);
+            }
+            
+            @Override
+            protected void process(List<List<Product>> chunks) {
+                showLayout();
+                for (List<Product> chunk : chunks) {
+                    appendProducts(chunk);
+                }
             }
 
             @Override
             protected void done() {
-                loadingDialog.dispose();
                 try {
-                    allProducts = get();
-                    setupMainLayout(user);
-                    applyFilters();
+                    showLayout();
+                    if (remoteSummary != null) {
+                        System.out.println("Catalog has " + remoteSummary.getTotalProducts()
+                                + " products; querying it in the database page by page.");
+                        remoteCatalog = true;
+                        histogramMin = remoteSummary.getMinPrice();
+                        histogramMax = remoteSummary.getMaxPrice();
+                        applyFilters();
+                        return;
+                    }
+                    rebuildAutocomplete();
+                    if (!get()) {
+                        JOptionPane.showMessageDialog(frame, "Product data may be incomplete.", "Warning", JOptionPane.WARNING_MESSAGE);
+                    }
                 } catch (Exception e) {
                     e.printStackTrace();
                     JOptionPane.showMessageDialog(frame, "Application failed to load product data.", "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
+            
+            private void showLayout() {
+                if (layoutReady) return;
+                layoutReady = true;
+                loadingDialog.dispose();
+                setupMainLayout(user);
+            }
         };
 
         worker.execute();
@@ -0,0 +1,17 @@
+/**
+ * Storage for user accounts and credentials.
+ */
+public interface UserRepository {
+
+    /**
+     * Registers a new user, salting and hashing the password.
+     * @return true if successful, false if the username is taken.
+     */
+    boolean registerUser(String username, String password);
+
+    /**
+     * Checks a username/password pair.
+     * @return the User (with its stored ID) if the credentials match, null otherwise.
+     */
+    User authenticateUser(String username, String password);
+}
@@ -0,0 +1,266 @@
+import javax.swing.*;
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Product grid that only creates the ProductPanels it can show.
+ * The grid's preferred height covers every row, so the scroll bar behaves as if all
+ * products were laid out, but cells exist only for the rows in the viewport plus
+ * OVERSCAN_ROWS above and below. When the viewport moves, cells leaving that window
+ * are rebound to the products coming into it, so memory and layout cost depend on
+ * the window size, not on how many products there are.
+ *
+ * Cells are matched to products by id, so when the list changes (a keystroke that
+ * keeps most results, a catalog delta) a product still in the window keeps its cell
+ * and only moves. Only cells whose product left the window are rebound, and only to
+ * products that entered it. Rebuild time and allocation per list change are exposed
+ * over JMX as "shopeasy:type=ProductGrid".
+ *
+ * Each cell's image is requested at the cell's distance from the viewport, kept up to
+ * date while scrolling, and cancelled when the cell leaves the window, so the image
+ * loader works on what is on screen first and never on rows scrolled past.
+ *
+ * Looks like the GridLayout(0, 4, 20, 20) it replaces: four columns that share the
+ * width, 20px gaps, a 20px margin, and fixed-height cells.
+ */
+public class VirtualProductGrid extends JPanel implements Scrollable, VirtualProductGridMBean {
+
+    private static final int COLUMNS = 4;
+    private static final int GAP = 20;
+    private static final int MARGIN = 20;
+    private static final int CELL_HEIGHT = 420;
+    private static final int OVERSCAN_ROWS = 1;
+
+    private final Cart cart;
+    private final Runnable globalRefreshCallback;
+    private final JLabel emptyLabel = new JLabel("😥 No products found.", SwingConstants.CENTER);
+
+    private List<Product> products = Collections.emptyList();
+    private final Map<Integer, ProductPanel> cellsByIndex = new HashMap<>(); // Index in products -> cell showing it
+    private final Deque<ProductPanel> spareCells = new ArrayDeque<>();
+    private boolean rebuildPending; // The list changed since the last layout
+
+    // --- Metrics ---
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private final LatencyHistogram rebuildLatency = new LatencyHistogram();
+    private final LongAdder rebuildAllocatedBytes = new LongAdder();
+    private final LongAdder cellsKept = new LongAdder();
+    private final LongAdder cellsRebound = new LongAdder();
+    private final LongAdder cellsCreated = new LongAdder();
+
+    public VirtualProductGrid(Cart cart, Runnable globalRefreshCallback) {
+        super(null);
+        this.cart = cart;
+        this.globalRefreshCallback = globalRefreshCallback;
+        setBackground(new Color(248, 249, 250));
+
+        emptyLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
+        emptyLabel.setForeground(Color.GRAY);
+        add(emptyLabel);
+        Metrics.register("shopeasy:type=ProductGrid", this);
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            return (com.sun.management.ThreadMXBean) bean;
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Shows these products. The grid keeps the list; call again after changing it.
+     */
+    public void setProducts(List<Product> products) {
+        this.products = products;
+        rebuildPending = true;
+        emptyLabel.setVisible(products.isEmpty());
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Scrolling moves the grid inside the viewport without resizing it, which wouldn't
+     * lay it out again, so moves re-run the layout here.
+     */
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        boolean moved = x != getX() || y != getY();
+        super.setBounds(x, y, width, height);
+        if (moved) doLayout();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int rows = (products.size() + COLUMNS - 1) / COLUMNS;
+        int height = rows == 0 ? 0 : 2 * MARGIN + rows * CELL_HEIGHT + (rows - 1) * GAP;
+        return new Dimension(2 * MARGIN + COLUMNS * 260 + (COLUMNS - 1) * GAP, height);
+    }
+
+    /**
+     * Places cells over the visible rows. Cells keep the product they show wherever it
+     * moved in the window; the rest are recycled for the products without a cell.
+     */
+    @Override
+    public void doLayout() {
+        boolean rebuild = rebuildPending;
+        rebuildPending = false;
+        long start = System.nanoTime();
+        long allocatedBefore = rebuild ? allocatedBytes() : 0;
+
+        Rectangle visible = getVisibleRect();
+        emptyLabel.setBounds(visible);
+
+        int firstRow = 0;
+        int lastRow = -1;
+        if (!products.isEmpty() && visible.height > 0) {
+            int rows = (products.size() + COLUMNS - 1) / COLUMNS;
+            firstRow = Math.max(0, rowAt(visible.y) - OVERSCAN_ROWS);
+            lastRow = Math.min(rows - 1, rowAt(visible.y + visible.height) + OVERSCAN_ROWS);
+        }
+        int firstIndex = firstRow * COLUMNS;
+        int endIndex = Math.min(products.size(), (lastRow + 1) * COLUMNS);
+
+        // Keyed pass: products that already have a cell keep it
+        Map<Integer, ProductPanel> cellsById = new HashMap<>();
+        for (ProductPanel cell : cellsByIndex.values()) {
+            cellsById.put(cell.getProductId(), cell);
+        }
+        cellsByIndex.clear();
+        for (int index = firstIndex; index < endIndex; index++) {
+            Product product = products.get(index);
+            ProductPanel cell = cellsById.remove(product.getId());
+            if (cell != null) {
+                cell.bind(product); // Picks up changed details if the product was replaced
+                cellsByIndex.put(index, cell);
+                cellsKept.increment();
+            }
+        }
+        // Cells whose product left the window become spares...
+        for (ProductPanel cell : cellsById.values()) {
+            cell.setVisible(false);
+            cell.cancelImageLoad();
+            spareCells.push(cell);
+        }
+        // ...for the products that entered it
+        for (int index = firstIndex; index < endIndex; index++) {
+            Rectangle bounds = cellBounds(index);
+            int distance = distanceFromView(bounds, visible);
+            ProductPanel cell = cellsByIndex.get(index);
+            if (cell == null) {
+                cell = obtainCell(products.get(index), distance);
+                cellsByIndex.put(index, cell);
+            }
+            cell.setBounds(bounds);
+            cell.setImagePriority(distance);
+        }
+
+        if (rebuild) {
+            rebuildLatency.record(System.nanoTime() - start);
+            rebuildAllocatedBytes.add(allocatedBytes() - allocatedBefore);
+        }
+    }
+
+    private ProductPanel obtainCell(Product product, int imagePriority) {
+        ProductPanel cell = spareCells.poll();
+        if (cell == null) {
+            cell = new ProductPanel(product, cart, globalRefreshCallback);
+            add(cell);
+            cellsCreated.increment();
+        } else {
+            cell.setImagePriority(imagePriority); // Before bind(), so the load is queued where it belongs
+            cell.bind(product);
+            cell.setVisible(true);
+            cellsRebound.increment();
+        }
+        return cell;
+    }
+
+    /**
+     * Vertical pixels between the cell and the visible area, 0 if any of it is visible.
+     */
+    private static int distanceFromView(Rectangle cell, Rectangle visible) {
+        if (cell.y >= visible.y + visible.height) return cell.y - (visible.y + visible.height);
+        if (cell.y + cell.height <= visible.y) return visible.y - (cell.y + cell.height);
+        return 0;
+    }
+
+    private int rowAt(int y) {
+        return Math.max(0, (y - MARGIN) / (CELL_HEIGHT + GAP));
+    }
+
+    /**
+     * Where the product at this index in the list is (or would be) drawn.
+     */
+    public Rectangle cellBounds(int index) {
+        int innerWidth = getWidth() - 2 * MARGIN;
+        int cellWidth = Math.max(0, (innerWidth - (COLUMNS - 1) * GAP) / COLUMNS);
+        int row = index / COLUMNS;
+        int column = index % COLUMNS;
+        return new Rectangle(MARGIN + column * (cellWidth + GAP), MARGIN + row * (CELL_HEIGHT + GAP), cellWidth, CELL_HEIGHT);
+    }
+
+    /**
+     * Returns the cell currently showing the product, or null if it isn't in the window.
+     */
+    public ProductPanel cellFor(int productId) {
+        for (ProductPanel cell : cellsByIndex.values()) {
+            if (cell.getProductId() == productId) return cell;
+        }
+        return null;
+    }
+
+    /**
+     * Refreshes the cart buttons of the cells on screen.
+     */
+    public void updateButtonStates() {
+        for (ProductPanel cell : cellsByIndex.values()) {
+            cell.updateButtonState();
+        }
+    }
+
+    // --- Metrics getters ---
+    @Override public long getRebuilds() { return rebuildLatency.getCount(); }
+    @Override public double getMeanRebuildMillis() { return rebuildLatency.getMeanNanos() / 1e6; }
+    @Override public double getP95RebuildMillis() { return rebuildLatency.getPercentileNanos(95) / 1e6; }
+    @Override public double getMaxRebuildMillis() { return rebuildLatency.getMaxNanos() / 1e6; }
+    @Override public double getMeanRebuildAllocatedKB() {
+        long rebuilds = rebuildLatency.getCount();
+        return rebuilds == 0 ? 0.0 : rebuildAllocatedBytes.sum() / 1024.0 / rebuilds;
+    }
+    @Override public long getCellsKept() { return cellsKept.sum(); }
+    @Override public long getCellsRebound() { return cellsRebound.sum(); }
+    @Override public long getCellsCreated() { return cellsCreated.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("ProductGrid[rebuilds=%d, mean=%.2fms, p95=%.2fms, alloc=%.1fKB/rebuild, kept=%d, rebound=%d, created=%d]",
+                getRebuilds(), getMeanRebuildMillis(), getP95RebuildMillis(), getMeanRebuildAllocatedKB(),
+                getCellsKept(), getCellsRebound(), getCellsCreated());
+    }
+
+    // --- Scrollable ---
+    @Override public Dimension getPreferredScrollableViewportSize() { return getPreferredSize(); }
+    @Override public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) { return 16; }
+    @Override public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+    @Override public boolean getScrollableTracksViewportWidth() { return true; }
+    @Override public boolean getScrollableTracksViewportHeight() {
+        // Fill the viewport when there are too few rows, so the empty message stays centered
+        return getParent() instanceof JViewport && getParent().getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * JMX view of the product grid's rebuilds (see VirtualProductGrid).
+ */
+public interface VirtualProductGridMBean {
+    long getRebuilds();
+    double getMeanRebuildMillis();
+    double getP95RebuildMillis();
+    double getMaxRebuildMillis();
+    double getMeanRebuildAllocatedKB();
+    long getCellsKept();
+    long getCellsRebound();
+    long getCellsCreated();
+}